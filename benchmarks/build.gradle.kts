@@ -0,0 +1,91 @@
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
+
+dependencies {
+    jmhImplementation(project(":core"))
+    jmhImplementation(project(":examples:basic"))
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+}
+
+// Route-tree scaling sweep (match latency, cold compile, hot reload, memory per route) as CSV.
+// Narrow it with e.g. -Pscaling.routes=10,1000 -Pscaling.depths=3 -Pscaling.dynamicRatios=0.5.
+tasks.register<JavaExec>("routeScaling") {
+    group = "benchmark"
+    description = "Measures routing and compilation against synthetic route trees."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("winter.bench.RouteScaling")
+    javaLauncher.set(
+        javaToolchains.launcherFor {
+            languageVersion.set(JavaLanguageVersion.of(21))
+        },
+    )
+    args(layout.buildDirectory.file("results/scaling/routes.csv").get().asFile.path)
+    mapOf(
+        "scaling.routes" to "winter.bench.routes",
+        "scaling.depths" to "winter.bench.depths",
+        "scaling.dynamicRatios" to "winter.bench.dynamicRatios",
+        "scaling.label" to "winter.bench.label",
+    ).forEach { (property, name) ->
+        providers.gradleProperty(property).orNull?.let { systemProperty(name, it) }
+    }
+}
+
+// Constant-rate load against the example app; see winter.bench.load.LoadTest. Runs are saved to
+// build/results/load/<label>.json. Compare with -Pload.baseline=<label>; tune with -Pload.rate,
+// -Pload.duration, -Pload.warmup and -Pload.scenarios=json-get,post-body.
+tasks.register<JavaExec>("loadTest") {
+    group = "benchmark"
+    description = "Runs open-model load scenarios against the example routes."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("winter.bench.load.LoadTest")
+    javaLauncher.set(
+        javaToolchains.launcherFor {
+            languageVersion.set(JavaLanguageVersion.of(21))
+        },
+    )
+    workingDir = rootProject.file("examples/basic")
+    args(layout.buildDirectory.dir("results/load").get().asFile.path)
+    listOf("rate", "duration", "warmup", "scenarios", "label", "baseline").forEach { name ->
+        providers.gradleProperty("load.$name").orNull?.let {
+            systemProperty("winter.load.$name", it)
+        }
+    }
+}
+
+// Replays a capture written by WinterConfig.withCapture against a running server and reports
+// latency and status differences; see winter.bench.replay.Replay. Needs -Preplay.file; optional
+// -Preplay.target (default http://127.0.0.1:8080), -Preplay.speed (original, 2, max) and
+// -Preplay.concurrency (in-flight cap for max).
+tasks.register<JavaExec>("replay") {
+    group = "benchmark"
+    description = "Replays captured production traffic against a Winter server."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("winter.bench.replay.Replay")
+    javaLauncher.set(
+        javaToolchains.launcherFor {
+            languageVersion.set(JavaLanguageVersion.of(21))
+        },
+    )
+    providers.gradleProperty("replay.file").orNull?.let { args(file(it).path) }
+    providers.gradleProperty("replay.target").orNull?.let { args(it) }
+    listOf("speed", "concurrency").forEach { name ->
+        providers.gradleProperty("replay.$name").orNull?.let {
+            systemProperty("winter.replay.$name", it)
+        }
+    }
+}
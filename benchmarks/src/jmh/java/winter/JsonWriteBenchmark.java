@@ -0,0 +1,74 @@
+package winter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Mirrors Winter.writeJson minus the exchange: encode into the hashing buffer, then derive the
+// ETag from the running digest.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonWriteBenchmark {
+
+    @Param({"small", "large"})
+    public String body;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Object value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        value = body.equals("small") ? Map.of("message", "Hello from Winter") : users(500);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() throws IOException {
+        var out = new ETag.HashingOutputStream();
+        objectMapper.writeValue(out, value);
+        return out.buffer();
+    }
+
+    @Benchmark
+    public String encodeWithEtag() throws IOException {
+        var out = new ETag.HashingOutputStream();
+        objectMapper.writeValue(out, value);
+        return out.etag();
+    }
+
+    private static List<Map<String, Object>> users(int count) {
+        var users = new ArrayList<Map<String, Object>>(count);
+        for (int i = 0; i < count; i++) {
+            var user = new LinkedHashMap<String, Object>();
+            user.put("id", i);
+            user.put("name", "user-" + i);
+            user.put("email", "user-" + i + "@example.com");
+            user.put("active", i % 3 != 0);
+            user.put("roles", List.of("reader", i % 10 == 0 ? "admin" : "writer"));
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,265 @@
+package winter.bench;
+
+import winter.compiler.RouteCompiler;
+import winter.reload.RouteWatcher;
+import winter.router.FileRouter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// How routing and compilation scale with the size and shape of routes/. The parent process walks
+// the configured matrix and runs every configuration in a fresh JVM, so metaspace and heap
+// deltas are not polluted by earlier trees; each child prints one CSV row.
+//
+// System properties (comma-separated lists): winter.bench.routes, winter.bench.depths,
+// winter.bench.dynamicRatios, plus winter.bench.label to tag rows (e.g. a commit or version).
+public final class RouteScaling {
+
+    static final String HEADER =
+            "label,routes,max_depth,dynamic_ratio,match_p50_ns,match_p99_ns,match_mean_ns,"
+                    + "unmatched,cold_compile_ms,compile_per_route_ms,reload_p50_ms,reload_max_ms,"
+                    + "metaspace_bytes_per_route,heap_bytes_per_route";
+
+    private static final long SEED = 42;
+    private static final int MATCH_SAMPLES = 200_000;
+    private static final int RELOAD_EDITS = 10;
+    private static final long RELOAD_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private RouteScaling() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 4 && args[0].equals("--one")) {
+            System.out.println(
+                    measure(
+                            Integer.parseInt(args[1]),
+                            Integer.parseInt(args[2]),
+                            Double.parseDouble(args[3])));
+            return;
+        }
+
+        Path csv = Path.of(args.length > 0 ? args[0] : "build/results/scaling/routes.csv");
+        Files.createDirectories(csv.toAbsolutePath().getParent());
+        // Hot reload logs a line per compiled route; keep that out of the console.
+        Path log = csv.resolveSibling(csv.getFileName() + ".log");
+        Files.deleteIfExists(log);
+        List<String> rows = new ArrayList<>();
+        rows.add(HEADER);
+        for (String routes : list("winter.bench.routes", "10,1000,20000")) {
+            for (String depth : list("winter.bench.depths", "2,5")) {
+                for (String ratio : list("winter.bench.dynamicRatios", "0,0.3")) {
+                    String row = fork(log, routes, depth, ratio);
+                    System.out.println(row);
+                    rows.add(row);
+                }
+            }
+        }
+
+        Files.write(csv, rows, StandardCharsets.UTF_8);
+        System.out.println("Wrote " + csv.toAbsolutePath());
+    }
+
+    private static String fork(Path log, String routes, String depth, String ratio)
+            throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        String label = System.getProperty("winter.bench.label", "dev");
+        var process =
+                new ProcessBuilder(
+                                java,
+                                "-cp",
+                                System.getProperty("java.class.path"),
+                                "-Dwinter.bench.label=" + label,
+                                RouteScaling.class.getName(),
+                                "--one",
+                                routes,
+                                depth,
+                                ratio)
+                        .redirectError(ProcessBuilder.Redirect.appendTo(log.toFile()))
+                        .start();
+        String out = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException(
+                    "Scaling run failed for routes=%s depth=%s ratio=%s, see %s"
+                            .formatted(routes, depth, ratio, log));
+        }
+        return out.strip();
+    }
+
+    private static String measure(int routeCount, int maxDepth, double dynamicRatio)
+            throws Exception {
+        Path routesDir = Files.createTempDirectory("winter-scaling");
+        try {
+            var generator = new RouteTreeGenerator(routeCount, maxDepth, dynamicRatio, SEED);
+            List<RouteTreeGenerator.Route> routes = generator.generate(routesDir);
+
+            var router = new FileRouter(routesDir);
+            long[] match = matchLatencies(router, routes);
+            int unmatched = unmatched(router, routes);
+
+            // The cold compile runs first so it includes javac warming up, as at boot. Memory
+            // per route is what unloading every route gives back, measured after the reloads
+            // so javac's own footprint is already in both readings.
+            var compiler = new RouteCompiler(routesDir, List.of());
+            long start = System.nanoTime();
+            RouteWatcher watcher = RouteWatcher.start(routesDir, compiler);
+            long coldNanos = System.nanoTime() - start;
+            long[] reload;
+            MemoryPoolMXBean metaspace = metaspace();
+            long heapLoaded;
+            long metaspaceLoaded;
+            try {
+                if (compiler.compiledRoutes() != routeCount) {
+                    throw new IllegalStateException(
+                            "Compiled " + compiler.compiledRoutes() + " of " + routeCount);
+                }
+                reload = reloadLatencies(compiler, routes);
+                heapLoaded = settledHeap();
+                metaspaceLoaded = metaspaceUsed(metaspace);
+            } finally {
+                watcher.close();
+                for (var route : routes) compiler.invalidate(route.file());
+            }
+            long heapUnloaded = settledHeap();
+            long metaspaceUnloaded = metaspaceUsed(metaspace);
+
+            return String.join(
+                    ",",
+                    System.getProperty("winter.bench.label", "dev"),
+                    Integer.toString(routeCount),
+                    Integer.toString(maxDepth),
+                    Double.toString(dynamicRatio),
+                    Long.toString(percentile(match, 0.50)),
+                    Long.toString(percentile(match, 0.99)),
+                    Long.toString(Arrays.stream(match).sum() / match.length),
+                    Integer.toString(unmatched),
+                    Long.toString(TimeUnit.NANOSECONDS.toMillis(coldNanos)),
+                    format(coldNanos / 1e6 / routeCount),
+                    format(percentile(reload, 0.50) / 1e6),
+                    format(reload[reload.length - 1] / 1e6),
+                    Long.toString((metaspaceLoaded - metaspaceUnloaded) / routeCount),
+                    Long.toString((heapLoaded - heapUnloaded) / routeCount));
+        } finally {
+            delete(routesDir);
+        }
+    }
+
+    // Shuffled so the OS dentry cache and branch predictors see a realistic mix; the first
+    // pass is warmup.
+    private static long[] matchLatencies(FileRouter router, List<RouteTreeGenerator.Route> routes) {
+        var paths = new ArrayList<String>(routes.size());
+        for (var route : routes) paths.add(route.requestPath());
+        Collections.shuffle(paths, new Random(SEED));
+
+        for (int i = 0; i < MATCH_SAMPLES; i++) router.match(paths.get(i % paths.size()));
+
+        long[] out = new long[MATCH_SAMPLES];
+        for (int i = 0; i < MATCH_SAMPLES; i++) {
+            String path = paths.get(i % paths.size());
+            long start = System.nanoTime();
+            router.match(path);
+            out[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(out);
+        return out;
+    }
+
+    private static int unmatched(FileRouter router, List<RouteTreeGenerator.Route> routes) {
+        int missing = 0;
+        for (var route : routes) {
+            var match = router.match(route.requestPath());
+            if (match == null || !match.file().equals(route.file().normalize())) missing++;
+        }
+        return missing;
+    }
+
+    // Time from rewriting a route file to the watcher having recompiled it: the invalidation
+    // drops it from the compiler cache and the recompile puts it back.
+    private static long[] reloadLatencies(
+            RouteCompiler compiler, List<RouteTreeGenerator.Route> routes) throws Exception {
+        var random = new Random(SEED);
+        int edits = Math.min(RELOAD_EDITS, routes.size());
+        long[] out = new long[edits];
+        int loaded = compiler.compiledRoutes();
+
+        for (int i = 0; i < edits; i++) {
+            Path file = routes.get(random.nextInt(routes.size())).file();
+            var invalidated = new CountDownLatch(1);
+            compiler.onInvalidate(
+                    changed -> {
+                        if (changed.equals(file)) invalidated.countDown();
+                    });
+
+            long start = System.nanoTime();
+            Files.writeString(file, RouteTreeGenerator.source(1_000_000 + i));
+            if (!invalidated.await(RELOAD_TIMEOUT_NANOS, TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("No reload seen for " + file);
+            }
+            while (compiler.compiledRoutes() < loaded) {
+                if (System.nanoTime() - start > RELOAD_TIMEOUT_NANOS) {
+                    throw new IllegalStateException("Recompile did not finish for " + file);
+                }
+                Thread.sleep(1);
+            }
+            out[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(out);
+        return out;
+    }
+
+    private static MemoryPoolMXBean metaspace() {
+        for (var pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getName().equals("Metaspace")) return pool;
+        }
+        return null;
+    }
+
+    private static long metaspaceUsed(MemoryPoolMXBean metaspace) {
+        return metaspace == null ? 0 : metaspace.getUsage().getUsed();
+    }
+
+    private static long settledHeap() throws InterruptedException {
+        var memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static List<String> list(String property, String defaults) {
+        return Arrays.stream(System.getProperty(property, defaults).split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package winter.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Writes a synthetic routes/ tree: `routes` route files, each 1..maxDepth segments deep, where
+// each segment is dynamic with probability dynamicRatio. Dynamic names are fixed per level
+// (`[p1]`, `[p2]`, ...) so params never repeat along a path, and a directory gets either a
+// dynamic subdirectory or a dynamic leaf file, never both, so every route stays reachable.
+public final class RouteTreeGenerator {
+
+    public record Route(Path file, String requestPath) {}
+
+    private final int routes;
+    private final int maxDepth;
+    private final double dynamicRatio;
+    private final long seed;
+
+    public RouteTreeGenerator(int routes, int maxDepth, double dynamicRatio, long seed) {
+        if (routes < 1) throw new IllegalArgumentException("routes must be >= 1");
+        if (maxDepth < 1) throw new IllegalArgumentException("maxDepth must be >= 1");
+        if (dynamicRatio < 0 || dynamicRatio > 1) {
+            throw new IllegalArgumentException("dynamicRatio must be in [0, 1]");
+        }
+        this.routes = routes;
+        this.maxDepth = maxDepth;
+        this.dynamicRatio = dynamicRatio;
+        this.seed = seed;
+    }
+
+    public List<Route> generate(Path routesDir) throws IOException {
+        var random = new Random(seed);
+        // Enough static names per level that the tree widens instead of piling into one dir.
+        int fanout = Math.max(2, (int) Math.ceil(Math.pow(routes, 1.0 / maxDepth)));
+        var out = new ArrayList<Route>(routes);
+        Set<Path> dynamicDirParents = new HashSet<>();
+        Set<Path> dynamicFileParents = new HashSet<>();
+
+        for (int i = 0; i < routes; i++) {
+            int depth = 1 + random.nextInt(maxDepth);
+            Path dir = routesDir;
+            var path = new StringBuilder();
+
+            for (int level = 1; level < depth; level++) {
+                boolean dynamic =
+                        random.nextDouble() < dynamicRatio && !dynamicFileParents.contains(dir);
+                if (dynamic) {
+                    dynamicDirParents.add(dir);
+                    dir = dir.resolve("[p" + level + "]");
+                    path.append("/v").append(random.nextInt(1_000));
+                } else {
+                    String name = "s" + random.nextInt(fanout);
+                    dir = dir.resolve(name);
+                    path.append('/').append(name);
+                }
+            }
+
+            Path file;
+            if (random.nextDouble() < dynamicRatio
+                    && !dynamicDirParents.contains(dir)
+                    && dynamicFileParents.add(dir)) {
+                file = dir.resolve("[p" + depth + "].java");
+                path.append("/v").append(random.nextInt(1_000));
+            } else {
+                file = dir.resolve("r" + i + ".java");
+                path.append("/r").append(i);
+            }
+
+            Files.createDirectories(dir);
+            Files.writeString(file, source(i));
+            out.add(new Route(file, path.toString()));
+        }
+        return out;
+    }
+
+    public static String source(int id) {
+        return """
+                import winter.Ctx;
+
+                import java.util.Map;
+
+                public class Route {
+
+                    public Object get(Ctx ctx) {
+                        return Map.of("route", %d);
+                    }
+                }
+                """
+                .formatted(id);
+    }
+}
@@ -0,0 +1,18 @@
+package winter.bench.load;
+
+import java.util.Map;
+
+// Latencies are in microseconds and measured from each request's scheduled send time; failed
+// and timed-out requests are included at the time they took to fail.
+public record LoadResult(
+        String scenario,
+        int rate,
+        long sent,
+        long completed,
+        long errors,
+        double throughput,
+        long p50Micros,
+        long p99Micros,
+        long p999Micros,
+        long maxMicros,
+        Map<String, Long> statuses) {}
@@ -0,0 +1,256 @@
+package winter.bench.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import winter.Ctx;
+import winter.Winter;
+import winter.WinterConfig;
+import winter.WinterServer;
+import winter.example.basic.CorsMiddleware;
+import winter.middleware.Middleware;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Boots the example app the way Main does (plus a second instance behind a deep middleware
+// stack) and drives each scenario at a constant rate. Every run is saved as <label>.json under
+// the results directory so a later run can be compared with -Dwinter.load.baseline=<label>.
+//
+// System properties: winter.load.rate (req/s, default 1000), winter.load.duration and
+// winter.load.warmup (seconds, default 10 and 3), winter.load.scenarios (comma-separated
+// names), winter.load.label, winter.load.baseline, winter.load.routes (default "routes").
+public final class LoadTest {
+
+    private static final int HEAVY_MIDDLEWARE = 10;
+    private static final ObjectMapper JSON =
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    static final List<Scenario> SCENARIOS =
+            List.of(
+                    Scenario.get("json-get", "/users"),
+                    Scenario.post(
+                            "post-body",
+                            "/users",
+                            "{\"name\":\"Grace Hopper\",\"email\":\"grace@example.com\","
+                                    + "\"roles\":[\"admin\",\"writer\"],\"active\":true}"),
+                    Scenario.get("not-found", "/no/such/route"),
+                    Scenario.get("middleware-heavy", "/users").onHeavyServer());
+
+    public record Run(
+            String label,
+            String startedAt,
+            int rate,
+            long durationSeconds,
+            List<LoadResult> results) {}
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        Path resultsDir = Path.of(args.length > 0 ? args[0] : "build/results/load");
+        int rate = Integer.getInteger("winter.load.rate", 1_000);
+        var duration = Duration.ofSeconds(Long.getLong("winter.load.duration", 10));
+        var warmup = Duration.ofSeconds(Long.getLong("winter.load.warmup", 3));
+        Path routes = Path.of(System.getProperty("winter.load.routes", "routes"));
+        String label =
+                System.getProperty(
+                        "winter.load.label",
+                        LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+
+        List<Scenario> scenarios = selected(System.getProperty("winter.load.scenarios"));
+        boolean needsHeavy = scenarios.stream().anyMatch(Scenario::heavy);
+        boolean needsPlain = scenarios.stream().anyMatch(scenario -> !scenario.heavy());
+
+        var middleware = new ArrayList<Middleware>();
+        middleware.add(new CorsMiddleware());
+        var heavyMiddleware = new ArrayList<>(middleware);
+        for (int i = 0; i < HEAVY_MIDDLEWARE; i++) heavyMiddleware.add(new RequestTagging(i));
+
+        var results = new ArrayList<LoadResult>();
+        String startedAt = Instant.now().toString();
+        try (var plain = needsPlain ? start(routes, middleware) : null;
+                var heavy = needsHeavy ? start(routes, heavyMiddleware) : null;
+                var client =
+                        HttpClient.newBuilder()
+                                .version(HttpClient.Version.HTTP_1_1)
+                                .connectTimeout(Duration.ofSeconds(5))
+                                .build()) {
+            var loop = new OpenLoop(client);
+            for (Scenario scenario : scenarios) {
+                URI base = (scenario.heavy() ? heavy : plain).base();
+                loop.run(base, scenario, rate, warmup);
+                LoadResult result = loop.run(base, scenario, rate, duration);
+                results.add(result);
+                System.out.println(row(result));
+            }
+        }
+
+        var run = new Run(label, startedAt, rate, duration.toSeconds(), results);
+        Files.createDirectories(resultsDir);
+        Path saved = resultsDir.resolve(label + ".json");
+        JSON.writeValue(saved.toFile(), run);
+        System.out.println();
+        System.out.println(header());
+        for (LoadResult result : results) System.out.println(row(result));
+        System.out.println("Saved " + saved.toAbsolutePath());
+
+        String baseline = System.getProperty("winter.load.baseline");
+        if (baseline != null && !baseline.isBlank()) compare(load(resultsDir, baseline), run);
+    }
+
+    private static List<Scenario> selected(String names) {
+        if (names == null || names.isBlank()) return SCENARIOS;
+        Set<String> wanted =
+                Arrays.stream(names.split(",")).map(String::trim).collect(Collectors.toSet());
+        List<Scenario> out = SCENARIOS.stream().filter(s -> wanted.contains(s.name())).toList();
+        if (out.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "No scenarios match "
+                            + wanted
+                            + "; known: "
+                            + SCENARIOS.stream().map(Scenario::name).toList());
+        }
+        return out;
+    }
+
+    private static String header() {
+        return String.format(
+                Locale.ROOT,
+                "%-18s %7s %8s %10s %9s %9s %9s %9s %7s",
+                "scenario",
+                "rate",
+                "sent",
+                "ok/s",
+                "p50 us",
+                "p99 us",
+                "p99.9 us",
+                "max us",
+                "errors");
+    }
+
+    private static String row(LoadResult result) {
+        return String.format(
+                Locale.ROOT,
+                "%-18s %7d %8d %10.1f %9d %9d %9d %9d %7d",
+                result.scenario(),
+                result.rate(),
+                result.sent(),
+                result.throughput(),
+                result.p50Micros(),
+                result.p99Micros(),
+                result.p999Micros(),
+                result.maxMicros(),
+                result.errors());
+    }
+
+    private static Run load(Path resultsDir, String baseline) throws IOException {
+        Path file =
+                baseline.endsWith(".json")
+                        ? Path.of(baseline)
+                        : resultsDir.resolve(baseline + ".json");
+        return JSON.readValue(file.toFile(), Run.class);
+    }
+
+    private static void compare(Run baseline, Run current) {
+        Map<String, LoadResult> before = new HashMap<>();
+        for (LoadResult result : baseline.results()) before.put(result.scenario(), result);
+
+        System.out.println();
+        System.out.printf(
+                Locale.ROOT,
+                "vs %s (rate %d, %ds)%n%-18s %9s %9s %9s %9s%n",
+                baseline.label(),
+                baseline.rate(),
+                baseline.durationSeconds(),
+                "scenario",
+                "p50",
+                "p99",
+                "p99.9",
+                "ok/s");
+        for (LoadResult now : current.results()) {
+            LoadResult then = before.get(now.scenario());
+            if (then == null) {
+                System.out.printf(Locale.ROOT, "%-18s (not in baseline)%n", now.scenario());
+                continue;
+            }
+            System.out.printf(
+                    Locale.ROOT,
+                    "%-18s %9s %9s %9s %9s%n",
+                    now.scenario(),
+                    change(then.p50Micros(), now.p50Micros()),
+                    change(then.p99Micros(), now.p99Micros()),
+                    change(then.p999Micros(), now.p999Micros()),
+                    change(then.throughput(), now.throughput()));
+        }
+    }
+
+    private static String change(double before, double after) {
+        if (before == 0) return "-";
+        return String.format(Locale.ROOT, "%+.1f%%", (after - before) / before * 100);
+    }
+
+    private static Server start(Path routes, List<Middleware> middleware) {
+        int port = freePort();
+        WinterConfig config =
+                WinterConfig.of(routes.toAbsolutePath())
+                        .withHost("127.0.0.1")
+                        .withPort(port)
+                        .withHotReload(true);
+        WinterServer server = Winter.start(config, middleware.toArray(new Middleware[0]));
+        return new Server(server, URI.create("http://127.0.0.1:" + port));
+    }
+
+    private static int freePort() {
+        try (var socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            return socket.getLocalPort();
+        } catch (IOException exception) {
+            throw new RuntimeException("Failed to allocate free port", exception);
+        }
+    }
+
+    private record Server(WinterServer server, URI base) implements AutoCloseable {
+        @Override
+        public void close() {
+            server.close();
+        }
+    }
+
+    // Stands in for the auth/tracing/tenant middleware a real app stacks up: reads a request
+    // header on the way in and adds a response header on the way out.
+    private static final class RequestTagging implements Middleware {
+        private final String header;
+
+        RequestTagging(int layer) {
+            this.header = "X-Layer-" + layer;
+        }
+
+        @Override
+        public Object before(Ctx ctx) {
+            ctx.header("X-Request-Id");
+            return null;
+        }
+
+        @Override
+        public Object after(Ctx ctx, Object result) {
+            ctx.responseHeader(header, "1");
+            return result;
+        }
+    }
+}
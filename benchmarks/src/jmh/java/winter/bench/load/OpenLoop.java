@@ -0,0 +1,115 @@
+package winter.bench.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-model load: request i is due at start + i/rate whether or not earlier ones have come
+// back, and its latency is measured from that due time rather than from when it was actually
+// sent. A stalled server therefore shows up as queueing delay on every request scheduled during
+// the stall (no coordinated omission), instead of as one slow request and a quiet generator.
+final class OpenLoop {
+
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient client;
+
+    OpenLoop(HttpClient client) {
+        this.client = client;
+    }
+
+    LoadResult run(URI base, Scenario scenario, int rate, Duration duration)
+            throws InterruptedException {
+        int total = (int) Math.max(1, duration.toMillis() * rate / 1_000);
+        long interval = 1_000_000_000L / rate;
+        HttpRequest request = request(base, scenario);
+        long[] latencies = new long[total];
+        int[] statuses = new int[total];
+        var lastDone = new AtomicLong();
+        var done = new CountDownLatch(total);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long due = start + i * interval;
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            int slot = i;
+            client.sendAsync(request, BodyHandlers.discarding())
+                    .whenComplete(
+                            (response, failure) -> {
+                                long now = System.nanoTime();
+                                latencies[slot] = now - due;
+                                statuses[slot] = failure == null ? response.statusCode() : 0;
+                                lastDone.accumulateAndGet(now, Math::max);
+                                done.countDown();
+                            });
+        }
+
+        long grace = REQUEST_TIMEOUT.toNanos() + TimeUnit.SECONDS.toNanos(5);
+        if (!done.await(grace, TimeUnit.NANOSECONDS)) {
+            throw new IllegalStateException(
+                    scenario.name() + ": " + done.getCount() + " requests never completed");
+        }
+        return summarize(scenario, rate, latencies, statuses, lastDone.get() - start);
+    }
+
+    private static LoadResult summarize(
+            Scenario scenario, int rate, long[] latencies, int[] statuses, long elapsedNanos) {
+        Map<String, Long> byStatus = new TreeMap<>();
+        int count = 0;
+        for (int status : statuses) {
+            byStatus.merge(status == 0 ? "error" : Integer.toString(status), 1L, Long::sum);
+            if (status != 0) count++;
+        }
+        // Failures and timeouts stay in the distribution at the time they took to fail: leaving
+        // them out would make an overloaded run that times out look faster than a healthy one.
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+
+        long errors = latencies.length - count;
+        double seconds = Math.max(1, elapsedNanos) / 1e9;
+        return new LoadResult(
+                scenario.name(),
+                rate,
+                latencies.length,
+                count,
+                errors,
+                count / seconds,
+                micros(percentile(sorted, 0.50)),
+                micros(percentile(sorted, 0.99)),
+                micros(percentile(sorted, 0.999)),
+                micros(sorted[sorted.length - 1]),
+                byStatus);
+    }
+
+    private static HttpRequest request(URI base, Scenario scenario) {
+        var builder =
+                HttpRequest.newBuilder(base.resolve(scenario.path())).timeout(REQUEST_TIMEOUT);
+        if (scenario.body() == null) {
+            return builder.method(scenario.method(), HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .method(scenario.method(), HttpRequest.BodyPublishers.ofString(scenario.body()))
+                .build();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,18 @@
+package winter.bench.load;
+
+// One kind of request sent repeatedly at a fixed rate. `heavy` scenarios go to the server booted
+// with the extra middleware stack.
+public record Scenario(String name, String method, String path, String body, boolean heavy) {
+
+    public static Scenario get(String name, String path) {
+        return new Scenario(name, "GET", path, null, false);
+    }
+
+    public static Scenario post(String name, String path, String body) {
+        return new Scenario(name, "POST", path, body, false);
+    }
+
+    public Scenario onHeavyServer() {
+        return new Scenario(name, method, path, body, true);
+    }
+}
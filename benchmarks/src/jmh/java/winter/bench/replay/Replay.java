@@ -0,0 +1,245 @@
+package winter.bench.replay;
+
+import winter.capture.CaptureFile;
+import winter.capture.CapturedRequest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Replays a traffic capture (WinterConfig.withCapture) against a running Winter instance and
+// compares what comes back with what was captured.
+//
+// Usage: Replay <capture file> [base URL, default http://127.0.0.1:8080]
+// System properties: winter.replay.speed = "original" (default), a multiplier such as "2"
+// (twice as fast) or "max" (back to back, winter.replay.concurrency in flight, default 64).
+//
+// Paced replays keep the captured gaps between requests and measure latency from when each
+// request was due, so a slow server shows up as queueing rather than as a slower replay.
+public final class Replay {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    // HttpClient refuses to set these; it manages them itself.
+    private static final Set<String> RESTRICTED_HEADERS =
+            Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private record Outcome(
+            String path, int originalStatus, int status, long originalMicros, long latencyNanos) {}
+
+    private Replay() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: Replay <capture file> [base URL]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[0]);
+        URI base = URI.create(args.length > 1 ? args[1] : "http://127.0.0.1:8080");
+        String speed = System.getProperty("winter.replay.speed", "original");
+        boolean max = speed.equals("max");
+        double factor = max || speed.equals("original") ? 1 : Double.parseDouble(speed);
+        if (factor <= 0) throw new IllegalArgumentException("speed must be > 0");
+        var inFlight = new Semaphore(max ? Integer.getInteger("winter.replay.concurrency", 64) : 0);
+
+        var outcomes = new ConcurrentLinkedQueue<Outcome>();
+        var pending = new ArrayList<CompletableFuture<?>>();
+        int omittedBodies = 0;
+        int unsendable = 0;
+        long start;
+        // Sorted by arrival: the file is in completion order, and the earliest arrival is the
+        // origin so the first request is due immediately.
+        List<CapturedRequest> captures = CaptureFile.readByOffset(file);
+        long firstOffset = captures.isEmpty() ? 0 : captures.getFirst().offsetMicros();
+        try (var client =
+                HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build()) {
+            start = System.nanoTime();
+            for (var captured : captures) {
+                HttpRequest request;
+                try {
+                    request = request(base, captured);
+                } catch (IllegalArgumentException exception) {
+                    // A target or header HttpClient refuses; one bad record must not end the run.
+                    unsendable++;
+                    continue;
+                }
+                if (captured.bodyOmitted()) omittedBodies++;
+                long due;
+                if (max) {
+                    inFlight.acquire();
+                    due = System.nanoTime();
+                } else {
+                    long offset = captured.offsetMicros() - firstOffset;
+                    due = start + (long) (offset * 1_000 / factor);
+                    for (long wait = due - System.nanoTime();
+                            wait > 0;
+                            wait = due - System.nanoTime()) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+
+                var sent = captured;
+                pending.add(
+                        client.sendAsync(request, BodyHandlers.discarding())
+                                .handle(
+                                        (response, failure) -> {
+                                            outcomes.add(
+                                                    new Outcome(
+                                                            path(sent.target()),
+                                                            sent.status(),
+                                                            failure == null
+                                                                    ? response.statusCode()
+                                                                    : 0,
+                                                            sent.durationMicros(),
+                                                            System.nanoTime() - due));
+                                            if (max) inFlight.release();
+                                            return null;
+                                        }));
+            }
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        report(new ArrayList<>(outcomes), elapsed, speed, omittedBodies, unsendable);
+    }
+
+    private static HttpRequest request(URI base, CapturedRequest captured) {
+        var builder =
+                HttpRequest.newBuilder(base.resolve(captured.target())).timeout(REQUEST_TIMEOUT);
+        List<String> headers = captured.headers();
+        for (int i = 0; i + 1 < headers.size(); i += 2) {
+            if (RESTRICTED_HEADERS.contains(headers.get(i).toLowerCase(Locale.ROOT))) continue;
+            builder.header(headers.get(i), headers.get(i + 1));
+        }
+        var body =
+                captured.body().length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(captured.body());
+        return builder.method(captured.method(), body).build();
+    }
+
+    private static void report(
+            List<Outcome> outcomes,
+            long elapsedNanos,
+            String speed,
+            int omittedBodies,
+            int unsendable) {
+        int count = outcomes.size();
+        long[] replayed = new long[count];
+        long[] original = new long[count];
+        Map<String, Long> transitions = new TreeMap<>();
+        Map<String, Long> mismatchedPaths = new TreeMap<>();
+        long failures = 0;
+        for (int i = 0; i < count; i++) {
+            Outcome outcome = outcomes.get(i);
+            replayed[i] = TimeUnit.NANOSECONDS.toMicros(outcome.latencyNanos());
+            original[i] = outcome.originalMicros();
+            if (outcome.status() == 0) failures++;
+            if (outcome.status() != outcome.originalStatus()) {
+                String to = outcome.status() == 0 ? "error" : Integer.toString(outcome.status());
+                transitions.merge(outcome.originalStatus() + " -> " + to, 1L, Long::sum);
+                mismatchedPaths.merge(outcome.path(), 1L, Long::sum);
+            }
+        }
+        Arrays.sort(replayed);
+        Arrays.sort(original);
+
+        double seconds = Math.max(1, elapsedNanos) / 1e9;
+        System.out.printf(
+                Locale.ROOT,
+                "Replayed %d requests in %.1fs (%.1f req/s, speed %s), %d failed%n",
+                count,
+                seconds,
+                count / seconds,
+                speed,
+                failures);
+        if (omittedBodies > 0) {
+            System.out.printf(
+                    Locale.ROOT,
+                    "%d requests were captured without their body and sent without one%n",
+                    omittedBodies);
+        }
+        if (unsendable > 0) {
+            System.out.printf(
+                    Locale.ROOT,
+                    "%d requests were skipped because they could not be rebuilt for sending%n",
+                    unsendable);
+        }
+
+        System.out.println();
+        System.out.printf(
+                Locale.ROOT,
+                "%-10s %9s %9s %9s %9s %9s%n",
+                "latency",
+                "p50 us",
+                "p90 us",
+                "p99 us",
+                "p99.9 us",
+                "max us");
+        System.out.println(latencies("captured", original));
+        System.out.println(latencies("replayed", replayed));
+
+        long mismatches = transitions.values().stream().mapToLong(Long::longValue).sum();
+        System.out.println();
+        if (mismatches == 0) {
+            System.out.println("Status: all responses matched the capture");
+            return;
+        }
+        System.out.printf(
+                Locale.ROOT, "Status: %d responses differ from the capture%n", mismatches);
+        transitions.forEach(
+                (transition, n) -> System.out.printf(Locale.ROOT, "  %-16s %d%n", transition, n));
+        System.out.println("Most affected paths:");
+        mismatchedPaths.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(10)
+                .forEach(
+                        entry ->
+                                System.out.printf(
+                                        Locale.ROOT,
+                                        "  %-40s %d%n",
+                                        entry.getKey(),
+                                        entry.getValue()));
+    }
+
+    private static String latencies(String label, long[] sorted) {
+        return String.format(
+                Locale.ROOT,
+                "%-10s %9d %9d %9d %9d %9d",
+                label,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.90),
+                percentile(sorted, 0.99),
+                percentile(sorted, 0.999),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static String path(String target) {
+        int query = target.indexOf('?');
+        return query < 0 ? target : target.substring(0, query);
+    }
+}
@@ -0,0 +1,80 @@
+package winter.compiler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteHandleBenchmark {
+
+    private static final String ROUTE =
+            """
+            import winter.Ctx;
+
+            import java.util.Map;
+
+            public class Route {
+
+                public Object get(Ctx ctx) {
+                    return Map.of("message", "Hello from Winter");
+                }
+            }
+            """;
+
+    private Path routes;
+    private RouteCompiler compiler;
+    private Path routeFile;
+    private RouteHandle handle;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        routes = Files.createTempDirectory("winter-bench-routes");
+        routeFile = routes.resolve("index.java");
+        Files.writeString(routeFile, ROUTE);
+        compiler = new RouteCompiler(routes, List.of());
+        handle = compiler.load(routeFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        compiler.invalidate(routeFile);
+        try (Stream<Path> paths = Files.walk(routes)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object invoke() throws Exception {
+        return handle.invoke("get", null);
+    }
+
+    // The per-request path: mtime check against the compiler cache, then the call.
+    @Benchmark
+    public Object loadAndInvoke() throws Exception {
+        return compiler.load(routeFile).invoke("get", null);
+    }
+}
@@ -0,0 +1,51 @@
+package winter.limit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// tryAcquire from 4 threads. One key puts every thread on a single bucket's CAS; 1M keys is
+// past the default 100k cap, so stripes fill and eviction runs on the request path.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    @Param({"1", "10000", "1000000"})
+    public int keys;
+
+    private RateLimiter limiter;
+    private String[] names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        limiter = new RateLimiter(RateLimit.perClientIp(null, 1_000, 100));
+        names = new String[Math.min(keys, 65_536)];
+        for (int i = 0; i < names.length; i++) names[i] = "10.0." + (i >> 8) + "." + (i & 255);
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        if (keys <= names.length) {
+            return limiter.tryAcquire(names[ThreadLocalRandom.current().nextInt(keys)]);
+        }
+        return limiter.tryAcquire("k" + ThreadLocalRandom.current().nextInt(keys));
+    }
+}
@@ -0,0 +1,65 @@
+package winter.middleware;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MiddlewareChainBenchmark {
+
+    private static final Object RESULT = Map.of("message", "Hello from Winter");
+
+    @Param({"0", "3", "10"})
+    public int depth;
+
+    private MiddlewareChain chain;
+    private MiddlewareChain.Terminal terminal;
+    private MiddlewareChain.Terminal failing;
+    private MiddlewareChain.Fallback fallback;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var middlewares = new ArrayList<Middleware>(depth);
+        for (int i = 0; i < depth; i++) middlewares.add(new PassThrough());
+        chain = MiddlewareChain.of(List.copyOf(middlewares));
+        terminal = () -> RESULT;
+        failing =
+                () -> {
+                    throw new IllegalStateException("boom");
+                };
+        fallback = (ctx, exception) -> RESULT;
+    }
+
+    @Benchmark
+    public Object execute() {
+        return chain.execute(null, terminal, fallback);
+    }
+
+    @Benchmark
+    public Object executeFailing() {
+        return chain.execute(null, failing, fallback);
+    }
+
+    // Interface defaults only: before() returns null, after() passes the result through and
+    // onError() rethrows, so the numbers are the chain's own overhead.
+    private static final class PassThrough implements Middleware {}
+}
@@ -0,0 +1,95 @@
+package winter.router;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileRouterBenchmark {
+
+    private Path routes;
+    private FileRouter router;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        routes = Files.createTempDirectory("winter-bench-routes");
+        write("index.java");
+        write("teapot.java");
+        write("users/index.java");
+        write("users/[id]/index.java");
+        write("users/[id]/posts/index.java");
+        write("[category]/[id].java");
+        router = new FileRouter(routes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(routes)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public RouteMatch root() {
+        return router.match("/");
+    }
+
+    @Benchmark
+    public RouteMatch staticLeaf() {
+        return router.match("/teapot");
+    }
+
+    @Benchmark
+    public RouteMatch staticDir() {
+        return router.match("/users");
+    }
+
+    @Benchmark
+    public RouteMatch dynamicDir() {
+        return router.match("/users/123");
+    }
+
+    @Benchmark
+    public RouteMatch nestedDynamic() {
+        return router.match("/users/123/posts");
+    }
+
+    @Benchmark
+    public RouteMatch dynamicDirThenFile() {
+        return router.match("/books/123");
+    }
+
+    @Benchmark
+    public RouteMatch notFound() {
+        return router.match("/users/123/missing");
+    }
+
+    private void write(String relative) throws IOException {
+        Path file = routes.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "");
+    }
+}
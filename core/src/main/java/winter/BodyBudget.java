@@ -0,0 +1,95 @@
+package winter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public final class BodyBudget {
+
+    private final long limitBytes;
+    private final long maxWaitNanos;
+    private final String retryAfterSeconds;
+    private final AtomicLong used = new AtomicLong();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    BodyBudget(long limitBytes, Duration maxWait) {
+        this.limitBytes = limitBytes;
+        this.maxWaitNanos = Math.max(0, maxWait.toNanos());
+        this.retryAfterSeconds = Long.toString(Math.max(1, (maxWait.toMillis() + 999) / 1000));
+    }
+
+    public long limitBytes() {
+        return limitBytes;
+    }
+
+    public long usedBytes() {
+        return used.get();
+    }
+
+    public long waits() {
+        return waits.sum();
+    }
+
+    public long rejections() {
+        return rejections.sum();
+    }
+
+    // Blocks the calling worker thread (and so stops reading from its connection) until the
+    // bytes fit, then gives up with 503 once maxWait has passed.
+    void acquire(long bytes) {
+        if (bytes <= 0) return;
+        if (tryAcquire(bytes)) return;
+
+        waits.increment();
+        long deadline = System.nanoTime() + maxWaitNanos;
+        lock.lock();
+        try {
+            while (!tryAcquire(bytes)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) throw reject();
+                released.awaitNanos(remaining);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw reject();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(long bytes) {
+        if (bytes <= 0) return;
+        used.addAndGet(-bytes);
+        lock.lock();
+        try {
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean tryAcquire(long bytes) {
+        while (true) {
+            long current = used.get();
+            // A single request larger than the whole budget may still run when nothing else
+            // is buffered; maxBodyBytes is what bounds that case.
+            if (current > 0 && current + bytes > limitBytes) return false;
+            if (used.compareAndSet(current, current + bytes)) return true;
+        }
+    }
+
+    private HttpError reject() {
+        rejections.increment();
+        return new HttpError(
+                503,
+                Map.of("error", "Service Unavailable"),
+                Map.of("Retry-After", retryAfterSeconds));
+    }
+}
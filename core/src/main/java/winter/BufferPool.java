@@ -0,0 +1,32 @@
+package winter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class BufferPool {
+
+    static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_POOLED = 256;
+
+    private static final Queue<byte[]> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+
+    private BufferPool() {}
+
+    static byte[] acquire() {
+        byte[] buffer = POOL.poll();
+        if (buffer == null) return new byte[BUFFER_BYTES];
+        POOLED.decrementAndGet();
+        return buffer;
+    }
+
+    static void release(byte[] buffer) {
+        if (buffer == null || buffer.length != BUFFER_BYTES) return;
+        if (POOLED.incrementAndGet() > MAX_POOLED) {
+            POOLED.decrementAndGet();
+            return;
+        }
+        POOL.offer(buffer);
+    }
+}
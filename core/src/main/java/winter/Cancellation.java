@@ -0,0 +1,98 @@
+package winter;
+
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.ServerConnection;
+import io.undertow.util.AttachmentKey;
+
+import winter.deadline.TimingWheel;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Interrupts the worker thread running a request once its deadline passes or its connection
+// closes. The state machine makes sure the interrupt can never leak into the next request
+// that thread picks up.
+final class Cancellation {
+
+    private static final AttachmentKey<Current> CURRENT = AttachmentKey.create(Current.class);
+
+    // The outcome is part of the state, so anyone who sees a cancellation also sees why;
+    // INTERRUPTED is set on top of it once the interrupt has been delivered.
+    private static final int RUNNING = 0;
+    private static final int DONE = 1;
+    private static final int TIMED_OUT = 2;
+    private static final int DISCONNECTED = 3;
+    private static final int INTERRUPTED = 4;
+
+    private final long deadlineNanos;
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+    private Thread thread;
+    private TimingWheel.Timer timer;
+    private Current current;
+
+    Cancellation(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    // Armed around the route itself, so middleware never sees the interrupt.
+    void arm(HttpServerExchange exchange, TimingWheel wheel) {
+        thread = Thread.currentThread();
+        if (deadlineNanos - System.nanoTime() <= 0) {
+            cancel(504);
+            return;
+        }
+        timer = wheel.schedule(deadlineNanos, () -> cancel(504));
+
+        ServerConnection connection = exchange.getConnection();
+        if (connection == null) return;
+        // One close listener per connection, pointed at whichever request is running on it.
+        Current attached = connection.getAttachment(CURRENT);
+        if (attached == null) {
+            attached = new Current();
+            connection.putAttachment(CURRENT, attached);
+            Current registered = attached;
+            connection.addCloseListener(
+                    closed -> {
+                        Cancellation running = registered.get();
+                        if (running != null) running.cancel(503);
+                    });
+        }
+        attached.set(this);
+        current = attached;
+        if (!connection.isOpen()) cancel(503);
+    }
+
+    long deadlineNanos() {
+        return deadlineNanos;
+    }
+
+    boolean isCancelled() {
+        return state.get() >= TIMED_OUT;
+    }
+
+    HttpError error() {
+        if ((state.get() & ~INTERRUPTED) == TIMED_OUT) {
+            return new HttpError(504, Map.of("error", "Gateway Timeout"));
+        }
+        return new HttpError(503, Map.of("error", "Service Unavailable"));
+    }
+
+    void cancel(int status) {
+        int outcome = status == 504 ? TIMED_OUT : DISCONNECTED;
+        if (!state.compareAndSet(RUNNING, outcome)) return;
+        thread.interrupt();
+        state.set(outcome | INTERRUPTED);
+    }
+
+    // Called on the request thread once the route is done; idempotent.
+    void finish() {
+        if (timer != null) timer.cancel();
+        if (current != null) current.compareAndSet(this, null);
+        if (state.get() == DONE || state.compareAndSet(RUNNING, DONE)) return;
+        while ((state.get() & INTERRUPTED) == 0) Thread.onSpinWait();
+        Thread.interrupted();
+    }
+
+    private static final class Current extends AtomicReference<Cancellation> {}
+}
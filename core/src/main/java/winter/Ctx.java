@@ -1,38 +1,65 @@
 package winter;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
 
 import io.undertow.server.HttpServerExchange;
 import io.undertow.util.HeaderValues;
-import io.undertow.util.HttpString;
 
+import winter.multipart.Multipart;
+import winter.multipart.MultipartConfig;
+
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public final class Ctx {
 
     private final HttpServerExchange exchange;
     private final Map<String, String> params;
     private final ObjectMapper objectMapper;
-    private final int maxBodyBytes;
+    private final WinterConfig config;
+    private final BodyBudget bodyBudget;
     private byte[] cachedBody;
+    private boolean bodyConsumed;
+    private RuntimeException bodyFailure;
+    private Object parsedBody;
+    private boolean bodyParsed;
+    private Multipart multipart;
+    private Map<String, List<String>> headers;
+    private Map<String, String> cookies;
+    private long reservedBytes;
+    private List<String> responseHeaders;
+    private String etag;
+    private Cancellation cancellation;
+    private RequestTiming timing;
 
     Ctx(
             HttpServerExchange exchange,
             Map<String, String> params,
             ObjectMapper objectMapper,
-            int maxBodyBytes) {
+            WinterConfig config,
+            BodyBudget bodyBudget) {
         this.exchange = exchange;
         this.params = params;
         this.objectMapper = objectMapper;
-        this.maxBodyBytes = maxBodyBytes;
+        this.config = config;
+        this.bodyBudget = bodyBudget;
     }
 
     public String param(String name) {
@@ -48,29 +75,25 @@ public final class Ctx {
     public List<String> queryAll(String name) {
         Deque<String> values = exchange.getQueryParameters().get(name);
         if (values == null || values.isEmpty()) return List.of();
+        if (values.size() == 1) return List.of(values.getFirst());
         return List.copyOf(values);
     }
 
     public String header(String name) {
-        HeaderValues values = exchange.getRequestHeaders().get(name);
+        HeaderValues values = exchange.getRequestHeaders().get(HeaderNames.of(name));
         if (values == null || values.isEmpty()) return null;
         return values.getFirst();
     }
 
     public List<String> headers(String name) {
-        HeaderValues values = exchange.getRequestHeaders().get(name);
+        HeaderValues values = exchange.getRequestHeaders().get(HeaderNames.of(name));
         if (values == null || values.isEmpty()) return List.of();
-        return List.copyOf(values);
+        return Collections.unmodifiableList(values);
     }
 
     public Map<String, List<String>> headers() {
-        var out = new HashMap<String, List<String>>();
-        for (HttpString headerName : exchange.getRequestHeaders().getHeaderNames()) {
-            HeaderValues values = exchange.getRequestHeaders().get(headerName);
-            if (values == null || values.isEmpty()) continue;
-            out.put(headerName.toString(), new ArrayList<>(values));
-        }
-        return Map.copyOf(out);
+        if (headers == null) headers = new HeaderMapView(exchange.getRequestHeaders());
+        return headers;
     }
 
     public String cookie(String name) {
@@ -80,12 +103,15 @@ public final class Ctx {
     }
 
     public Map<String, String> cookies() {
-        var out = new HashMap<String, String>();
+        if (cookies != null) return cookies;
+
+        Map<String, String> out = null;
         for (var cookie : exchange.requestCookies()) {
+            if (out == null) out = new HashMap<>();
             out.put(cookie.getName(), cookie.getValue());
         }
-        if (out.isEmpty()) return Map.of();
-        return Map.copyOf(out);
+        cookies = out == null ? Map.of() : Collections.unmodifiableMap(out);
+        return cookies;
     }
 
     public String method() {
@@ -96,50 +122,231 @@ public final class Ctx {
         return exchange.getRequestPath();
     }
 
+    public Instant deadline() {
+        if (cancellation == null) return null;
+        return Instant.now().plusNanos(cancellation.deadlineNanos() - System.nanoTime());
+    }
+
+    public boolean isCancelled() {
+        if (cancellation != null && cancellation.isCancelled()) return true;
+        var connection = exchange.getConnection();
+        return connection != null && !connection.isOpen();
+    }
+
+    Cancellation cancellation() {
+        return cancellation;
+    }
+
+    void cancellation(Cancellation cancellation) {
+        this.cancellation = cancellation;
+    }
+
+    RequestTiming timing() {
+        return timing;
+    }
+
+    void timing(RequestTiming timing) {
+        this.timing = timing;
+    }
+
+    public Ctx responseHeader(String name, String value) {
+        if (responseHeaders == null) responseHeaders = new ArrayList<>(8);
+        responseHeaders.add(name);
+        responseHeaders.add(value);
+        return this;
+    }
+
+    void applyResponseHeaders(HttpServerExchange target) {
+        if (responseHeaders == null) return;
+        var headers = target.getResponseHeaders();
+        for (int i = 0; i < responseHeaders.size(); i += 2) {
+            headers.put(HeaderNames.of(responseHeaders.get(i)), responseHeaders.get(i + 1));
+        }
+    }
+
+    public void etag(String version) {
+        etag = ETag.quote(version);
+        String requestMethod = method();
+        if (!"GET".equals(requestMethod) && !"HEAD".equals(requestMethod)) return;
+        if (ETag.matches(header("If-None-Match"), etag)) throw new HttpError(304, null);
+    }
+
+    String validator() {
+        return etag;
+    }
+
     public byte[] bodyBytes() {
         if (cachedBody != null) return cachedBody;
+        InputStream in = bodyStream();
         long contentLength = exchange.getRequestContentLength();
-        if (maxBodyBytes > 0 && contentLength > maxBodyBytes) {
-            throw new HttpError(413, Map.of("error", "Payload Too Large"));
+        try (in) {
+            cachedBody =
+                    contentLength >= 0 && contentLength <= Integer.MAX_VALUE - 8
+                            ? readKnownLength(in, (int) contentLength)
+                            : readUnknownLength(in);
+        } catch (IOException exception) {
+            throw new WinterException("Failed to read request body", exception);
         }
-
-        cachedBody = readUpTo(exchange.getInputStream(), maxBodyBytes);
         return cachedBody;
     }
 
+    // Reads the body ahead of the route (for traffic capture). A failure is kept and thrown
+    // again from the route's first body access, so it answers as if it had read the body itself.
+    byte[] prefetchBody() {
+        try {
+            return bodyBytes();
+        } catch (RuntimeException exception) {
+            bodyFailure = exception;
+            return null;
+        }
+    }
+
     public String bodyText() {
         return new String(bodyBytes(), StandardCharsets.UTF_8);
     }
 
+    public InputStream bodyStream() {
+        if (cachedBody != null) return new ByteArrayInputStream(cachedBody);
+        if (bodyFailure != null) throw bodyFailure;
+        if (bodyConsumed) throw new IllegalStateException("Request body was already consumed");
+
+        long contentLength = exchange.getRequestContentLength();
+        int maxBodyBytes = config.maxBodyBytes();
+        if (maxBodyBytes > 0 && contentLength > maxBodyBytes) {
+            throw new HttpError(413, Map.of("error", "Payload Too Large"));
+        }
+        bodyConsumed = true;
+        return new BodyInputStream(exchange.getInputStream(), maxBodyBytes);
+    }
+
+    public Multipart multipart() {
+        if (multipart != null) return multipart;
+        if (bodyFailure != null) throw bodyFailure;
+        if (bodyConsumed || cachedBody != null) {
+            throw new IllegalStateException("Request body was already consumed");
+        }
+
+        // Uploads are bounded by the multipart limits instead of maxBodyBytes.
+        MultipartConfig limits = config.multipart();
+        long contentLength = exchange.getRequestContentLength();
+        if (limits.maxRequestBytes() > 0 && contentLength > limits.maxRequestBytes()) {
+            throw new HttpError(413, Map.of("error", "Payload Too Large"));
+        }
+        bodyConsumed = true;
+        multipart = Multipart.read(exchange.getInputStream(), header("Content-Type"), limits);
+        exchange.addExchangeCompleteListener(
+                (completed, next) -> {
+                    multipart.close();
+                    next.proceed();
+                });
+        return multipart;
+    }
+
+    public ReadableByteChannel bodyChannel() {
+        return Channels.newChannel(bodyStream());
+    }
+
+    // Parsed straight from the stream unless the body was already buffered, so heap per request
+    // is Jackson's buffers rather than the payload. The first result is kept and converted on
+    // later calls instead of reading the body again.
     public <T> T body(Class<T> type) {
         try {
-            return objectMapper.readValue(bodyBytes(), type);
-        } catch (IOException exception) {
-            throw new HttpError(400, Map.of("error", "Bad Request", "message", "Invalid JSON"));
+            if (bodyParsed) return objectMapper.convertValue(parsedBody, type);
+            T value =
+                    cachedBody != null
+                            ? objectMapper.readValue(cachedBody, type)
+                            : objectMapper.readValue(bodyStream(), type);
+            parsed(value);
+            return value;
+        } catch (IOException | IllegalArgumentException exception) {
+            throw invalidJson();
         }
     }
 
-    private static byte[] readUpTo(InputStream inputStream, int maxBytes) {
+    public JsonNode bodyTree() {
         try {
-            if (maxBytes <= 0) return inputStream.readAllBytes();
-
-            var buffer = new byte[8192];
-            int total = 0;
-            var out = new ByteArrayOutputStream(Math.min(maxBytes, 8192));
-
-            while (true) {
-                int read = inputStream.read(buffer);
-                if (read == -1) break;
-                total += read;
-                if (total > maxBytes) {
-                    throw new HttpError(413, Map.of("error", "Payload Too Large"));
-                }
-                out.write(buffer, 0, read);
+            if (bodyParsed) {
+                return parsedBody instanceof JsonNode tree
+                        ? tree
+                        : objectMapper.valueToTree(parsedBody);
             }
+            JsonNode tree =
+                    cachedBody != null
+                            ? objectMapper.readTree(cachedBody)
+                            : objectMapper.readTree(bodyStream());
+            if (tree == null) tree = MissingNode.getInstance();
+            parsed(tree);
+            return tree;
+        } catch (IOException | IllegalArgumentException exception) {
+            throw invalidJson();
+        }
+    }
 
-            return out.toByteArray();
+    private void parsed(Object value) {
+        parsedBody = value;
+        bodyParsed = true;
+    }
+
+    public JsonParser bodyParser() {
+        try {
+            if (cachedBody != null) return objectMapper.createParser(cachedBody);
+            return objectMapper.createParser(bodyStream());
         } catch (IOException exception) {
-            throw new WinterException("Failed to read request body", exception);
+            throw invalidJson();
+        }
+    }
+
+    public <T> Stream<T> bodyLines(Class<T> type) {
+        return JsonLines.stream(objectMapper, bodyParser(), type);
+    }
+
+    private static HttpError invalidJson() {
+        return new HttpError(400, Map.of("error", "Bad Request", "message", "Invalid JSON"));
+    }
+
+    private byte[] readKnownLength(InputStream in, int length) throws IOException {
+        // Read straight into an exact-size array instead of growing and copying chunks.
+        reserve(length);
+        byte[] bytes = new byte[length];
+        if (in.readNBytes(bytes, 0, length) < length) {
+            throw new HttpError(400, Map.of("error", "Bad Request", "message", "Truncated body"));
+        }
+        return bytes;
+    }
+
+    private byte[] readUnknownLength(InputStream in) throws IOException {
+        // Reserves what each read actually returned, so small chunked bodies do not hold a
+        // whole scratch buffer's worth of budget.
+        byte[] scratch = BufferPool.acquire();
+        try {
+            int read = in.readNBytes(scratch, 0, scratch.length);
+            reserve(read);
+            if (read < scratch.length) return Arrays.copyOf(scratch, read);
+
+            var out = new ByteArrayOutputStream(scratch.length * 2);
+            out.write(scratch, 0, read);
+            while (read == scratch.length) {
+                read = in.readNBytes(scratch, 0, scratch.length);
+                reserve(read);
+                out.write(scratch, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            BufferPool.release(scratch);
+        }
+    }
+
+    // Buffered bodies count against the server-wide budget until the exchange ends.
+    private void reserve(long bytes) {
+        if (bodyBudget == null || bytes <= 0) return;
+        bodyBudget.acquire(bytes);
+        if (reservedBytes == 0) {
+            exchange.addExchangeCompleteListener(
+                    (completed, next) -> {
+                        bodyBudget.release(reservedBytes);
+                        next.proceed();
+                    });
         }
+        reservedBytes += bytes;
     }
 }
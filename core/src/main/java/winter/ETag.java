@@ -0,0 +1,96 @@
+package winter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+final class ETag {
+
+    private static final int TAG_BYTES = 16;
+
+    private ETag() {}
+
+    static String quote(String version) {
+        if (version == null || version.isEmpty()) {
+            throw new IllegalArgumentException("ETag version must not be empty");
+        }
+        if (version.startsWith("\"") || version.startsWith("W/\"")) return version;
+        if (version.indexOf('"') >= 0) {
+            throw new IllegalArgumentException("ETag version must not contain quotes: " + version);
+        }
+        return '"' + version + '"';
+    }
+
+    static String of(byte[] bytes) {
+        var digest = sha256();
+        digest.update(bytes);
+        return fromDigest(digest);
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) return false;
+        String current = opaque(etag);
+
+        int start = 0;
+        int length = ifNoneMatch.length();
+        while (start < length) {
+            int comma = ifNoneMatch.indexOf(',', start);
+            int end = comma < 0 ? length : comma;
+            String candidate = ifNoneMatch.substring(start, end).trim();
+            if (candidate.equals("*")) return true;
+            if (!candidate.isEmpty() && opaque(candidate).equals(current)) return true;
+            start = end + 1;
+        }
+        return false;
+    }
+
+    // If-None-Match uses weak comparison, so W/"x" and "x" are the same validator.
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static String fromDigest(MessageDigest digest) {
+        byte[] hash = digest.digest();
+        var encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        return '"' + encoded.substring(0, (TAG_BYTES * 4 + 2) / 3) + '"';
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new WinterException("SHA-256 is not available", exception);
+        }
+    }
+
+    static final class HashingOutputStream extends ByteArrayOutputStream {
+
+        private final MessageDigest digest = sha256();
+
+        HashingOutputStream() {
+            super(256);
+        }
+
+        @Override
+        public void write(int b) {
+            super.write(b);
+            digest.update((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            super.write(bytes, offset, length);
+            digest.update(bytes, offset, length);
+        }
+
+        String etag() {
+            return fromDigest(digest);
+        }
+
+        ByteBuffer buffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package winter;
+
+import io.undertow.util.HeaderMap;
+import io.undertow.util.HeaderValues;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+final class HeaderMapView extends AbstractMap<String, List<String>> {
+
+    private final HeaderMap headers;
+
+    HeaderMapView(HeaderMap headers) {
+        this.headers = headers;
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        if (!(key instanceof String name)) return null;
+        HeaderValues values = headers.get(HeaderNames.of(name));
+        if (values == null || values.isEmpty()) return null;
+        return Collections.unmodifiableList(values);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return headers.getHeaderNames().size();
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, List<String>>> iterator() {
+                Iterator<HeaderValues> values = headers.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return values.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, List<String>> next() {
+                        if (!values.hasNext()) throw new NoSuchElementException();
+                        HeaderValues next = values.next();
+                        return Map.entry(
+                                next.getHeaderName().toString(),
+                                Collections.unmodifiableList(next));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return HeaderMapView.this.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package winter;
+
+import io.undertow.util.HttpString;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class HeaderNames {
+
+    private static final int MAX_CACHED = 1024;
+    private static final Map<String, HttpString> CACHE = new ConcurrentHashMap<>();
+
+    private HeaderNames() {}
+
+    // HttpString caches its case-insensitive hash, so resolving a name once lets every later
+    // HeaderMap lookup skip rehashing the string. Unknown names stop being cached at
+    // MAX_CACHED so client-controlled names cannot grow the map without bound.
+    static HttpString of(String name) {
+        HttpString cached = CACHE.get(name);
+        if (cached != null) return cached;
+
+        HttpString created = HttpString.tryFromString(name);
+        if (CACHE.size() < MAX_CACHED) CACHE.putIfAbsent(name, created);
+        return created;
+    }
+}
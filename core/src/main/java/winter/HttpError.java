@@ -1,14 +1,22 @@
 package winter;
 
+import java.util.Map;
+
 public final class HttpError extends RuntimeException {
 
     private final int status;
     private final Object body;
+    private final Map<String, String> headers;
 
     public HttpError(int status, Object body) {
+        this(status, body, Map.of());
+    }
+
+    public HttpError(int status, Object body, Map<String, String> headers) {
         super(String.valueOf(body));
         this.status = status;
         this.body = body;
+        this.headers = Map.copyOf(headers);
     }
 
     public int status() {
@@ -18,4 +26,8 @@ public final class HttpError extends RuntimeException {
     public Object body() {
         return body;
     }
+
+    public Map<String, String> headers() {
+        return headers;
+    }
 }
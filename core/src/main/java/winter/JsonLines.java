@@ -0,0 +1,90 @@
+package winter;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+final class JsonLines<T> implements Iterator<T> {
+
+    private final JsonParser parser;
+    private final MappingIterator<T> values;
+
+    private JsonLines(JsonParser parser, MappingIterator<T> values) {
+        this.parser = parser;
+        this.values = values;
+    }
+
+    static <T> Stream<T> stream(ObjectMapper objectMapper, JsonParser parser, Class<T> type) {
+        JsonLines<T> lines;
+        try {
+            lines = new JsonLines<>(parser, objectMapper.readerFor(type).readValues(parser));
+        } catch (IOException exception) {
+            closeQuietly(parser);
+            throw invalidLine(exception, parser);
+        }
+        var spliterator =
+                Spliterators.spliteratorUnknownSize(
+                        lines, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> closeQuietly(parser));
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return values.hasNextValue();
+        } catch (IOException exception) {
+            throw invalidLine(exception, parser);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        // Report failures against the line the record starts on, not where parsing gave up.
+        int line = parser.currentTokenLocation().getLineNr();
+        try {
+            return values.nextValue();
+        } catch (IOException exception) {
+            throw invalidLine(line);
+        }
+    }
+
+    private static HttpError invalidLine(IOException exception, JsonParser parser) {
+        JsonLocation location =
+                exception instanceof JsonProcessingException processing
+                                && processing.getLocation() != null
+                        ? processing.getLocation()
+                        : parser.currentLocation();
+        return invalidLine(location.getLineNr());
+    }
+
+    private static HttpError invalidLine(int line) {
+        return new HttpError(
+                400,
+                Map.of(
+                        "error",
+                        "Bad Request",
+                        "message",
+                        "Invalid JSON on line " + line,
+                        "line",
+                        line));
+    }
+
+    private static void closeQuietly(JsonParser parser) {
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
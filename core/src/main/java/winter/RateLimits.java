@@ -0,0 +1,71 @@
+package winter;
+
+import io.undertow.server.HttpServerExchange;
+
+import winter.limit.RateLimit;
+import winter.limit.RateLimiter;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+
+final class RateLimits {
+
+    private final RateLimiter[] prefixLimiters;
+
+    private RateLimits(RateLimiter[] prefixLimiters) {
+        this.prefixLimiters = prefixLimiters;
+    }
+
+    static RateLimits of(List<RateLimit> rules) {
+        if (rules.isEmpty()) return null;
+        var limiters = new RateLimiter[rules.size()];
+        for (int i = 0; i < limiters.length; i++) limiters[i] = new RateLimiter(rules.get(i));
+        return new RateLimits(limiters);
+    }
+
+    List<RateLimiter> limiters() {
+        return List.of(prefixLimiters);
+    }
+
+    Res check(HttpServerExchange exchange) {
+        String path = exchange.getRequestPath();
+        for (RateLimiter limiter : prefixLimiters) {
+            if (!limiter.rule().matches(path)) continue;
+            Res limited = check(limiter, exchange);
+            if (limited != null) return limited;
+        }
+        return null;
+    }
+
+    static Res check(RateLimiter limiter, HttpServerExchange exchange) {
+        long wait = limiter.tryAcquire(key(limiter.rule(), exchange));
+        if (wait == 0) return null;
+        long seconds = Math.max(1, (wait + 999_999_999L) / 1_000_000_000L);
+        return new Res(
+                429,
+                Map.of("Retry-After", Long.toString(seconds)),
+                Map.of("error", "Too Many Requests"));
+    }
+
+    private static String key(RateLimit rule, HttpServerExchange exchange) {
+        String key =
+                switch (rule.key()) {
+                    case CLIENT_IP -> clientIp(exchange);
+                    case HEADER ->
+                            exchange.getRequestHeaders().getFirst(HeaderNames.of(rule.keyName()));
+                    case COOKIE -> {
+                        var cookie = exchange.getRequestCookie(rule.keyName());
+                        yield cookie == null ? null : cookie.getValue();
+                    }
+                };
+        // Requests without the key share one bucket.
+        return key == null ? "" : key;
+    }
+
+    static String clientIp(HttpServerExchange exchange) {
+        InetSocketAddress source = exchange.getSourceAddress();
+        if (source == null || source.getAddress() == null) return null;
+        return source.getAddress().getHostAddress();
+    }
+}
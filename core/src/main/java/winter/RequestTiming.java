@@ -0,0 +1,103 @@
+package winter;
+
+import winter.metrics.Phase;
+import winter.metrics.ResourceAccounting;
+
+import java.util.Locale;
+
+// Per-request phase durations on the monotonic clock. Middleware time is what the chain took
+// beyond the handler, so before(), after() and onError() all land there.
+final class RequestTiming {
+
+    private final long start = System.nanoTime();
+    private final long[] phases = new long[Phase.values().length];
+    private boolean accounted;
+    private long cpuMark;
+    private long allocatedMark;
+    private long cpuNanos;
+    private long allocatedBytes;
+    private boolean captured;
+    private byte[] capturedBody;
+
+    long start() {
+        return start;
+    }
+
+    long[] phases() {
+        return phases;
+    }
+
+    long get(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    void add(Phase phase, long nanos) {
+        phases[phase.ordinal()] += nanos;
+    }
+
+    // Sampled requests also read thread CPU time and allocation around the handler and
+    // serialization. Both run on the same thread between markUsage() and addUsage(); a span on
+    // a thread that cannot be measured poisons the totals to -1.
+    void account() {
+        accounted = true;
+    }
+
+    boolean accounted() {
+        return accounted;
+    }
+
+    long cpuNanos() {
+        return cpuNanos;
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    void markUsage() {
+        if (!accounted) return;
+        cpuMark = ResourceAccounting.cpuTime();
+        allocatedMark = ResourceAccounting.allocatedBytes();
+    }
+
+    void addUsage() {
+        if (!accounted) return;
+        long cpu = ResourceAccounting.cpuTime();
+        long allocated = ResourceAccounting.allocatedBytes();
+        if (cpuNanos < 0 || cpuMark < 0 || cpu < 0) cpuNanos = -1;
+        else cpuNanos += cpu - cpuMark;
+        if (allocatedBytes < 0 || allocatedMark < 0 || allocated < 0) allocatedBytes = -1;
+        else allocatedBytes += allocated - allocatedMark;
+    }
+
+    // Requests sampled for traffic capture carry the body they were buffered with (if any)
+    // until the exchange completes and the record is written.
+    void capture() {
+        captured = true;
+    }
+
+    boolean captured() {
+        return captured;
+    }
+
+    byte[] capturedBody() {
+        return capturedBody;
+    }
+
+    void capturedBody(byte[] body) {
+        capturedBody = body;
+    }
+
+    // Server-Timing entries in milliseconds, e.g. "match;dur=0.012, handler;dur=3.4".
+    String header() {
+        var out = new StringBuilder(96);
+        for (Phase phase : Phase.values()) {
+            long nanos = phases[phase.ordinal()];
+            if (nanos == 0) continue;
+            if (!out.isEmpty()) out.append(", ");
+            out.append(phase.label()).append(";dur=");
+            out.append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+        }
+        return out.toString();
+    }
+}
@@ -1,5 +1,7 @@
 package winter;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -9,8 +11,18 @@ public record Res(int status, Map<String, String> headers, Object body) {
     }
 
     public Res header(String name, String value) {
-        var next = new HashMap<>(headers);
+        if (headers.isEmpty()) return new Res(status, Map.of(name, value), body);
+        var next = new HashMap<String, String>(headers.size() + 1, 1f);
+        next.putAll(headers);
         next.put(name, value);
-        return new Res(status, Map.copyOf(next), body);
+        return new Res(status, Collections.unmodifiableMap(next), body);
+    }
+
+    public Res cache(Duration maxAge) {
+        return header("Cache-Control", "public, max-age=" + maxAge.toSeconds());
+    }
+
+    public Res etag(String version) {
+        return header("ETag", ETag.quote(version));
     }
 }
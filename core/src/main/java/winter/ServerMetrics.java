@@ -0,0 +1,251 @@
+package winter;
+
+import io.undertow.Undertow;
+
+import winter.cache.ResponseCache;
+import winter.capture.TrafficCapture;
+import winter.compiler.RouteCompiler;
+import winter.compiler.RouteHandle;
+import winter.limit.ConcurrencyLimiter;
+import winter.limit.RateLimiter;
+import winter.log.AccessLog;
+import winter.metrics.MetricsRegistry;
+import winter.metrics.ResourceAccounting;
+import winter.metrics.RouteCost;
+import winter.resilience.Bulkhead;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// Gauges and counters read from the components Winter already keeps, so they cost nothing
+// until scraped.
+final class ServerMetrics {
+
+    private ServerMetrics() {}
+
+    static void register(
+            MetricsRegistry registry,
+            Function<Path, String> routeLabel,
+            RouteCompiler compiler,
+            LongAdder inflight,
+            ConcurrencyLimiter limiter,
+            RateLimits rateLimits,
+            BodyBudget bodyBudget,
+            ResponseCache responseCache,
+            Map<String, Bulkhead> bulkheads) {
+        registry.gauge(
+                "winter_inflight_requests",
+                "Requests currently being handled.",
+                Map.of(),
+                inflight::sum);
+        registry.gauge(
+                "winter_compiled_routes",
+                "Route and middleware files currently compiled.",
+                Map.of(),
+                compiler::compiledRoutes);
+
+        perRoute(
+                registry,
+                routeLabel,
+                compiler,
+                "winter_circuit_breaker_state",
+                "Circuit breaker state per route (0 closed, 1 open, 2 half-open).",
+                "gauge",
+                handle -> {
+                    var breaker = handle.circuitBreaker();
+                    return breaker == null ? -1 : breaker.state().ordinal();
+                });
+        perRoute(
+                registry,
+                routeLabel,
+                compiler,
+                "winter_circuit_breaker_rejected_total",
+                "Requests failed fast by an open circuit breaker.",
+                "counter",
+                handle -> {
+                    var breaker = handle.circuitBreaker();
+                    return breaker == null ? -1 : breaker.rejected();
+                });
+        perRoute(
+                registry,
+                routeLabel,
+                compiler,
+                "winter_route_rate_limited_total",
+                "Requests rejected with 429 by a route's own rate limit.",
+                "counter",
+                handle -> handle.rateLimiter() == null ? -1 : handle.rateLimiter().rejected());
+
+        if (rateLimits != null) {
+            for (RateLimiter rate : rateLimits.limiters()) {
+                registry.counter(
+                        "winter_rate_limited_total",
+                        "Requests rejected with 429 by a path prefix rate limit.",
+                        Map.of("prefix", String.valueOf(rate.rule().pathPrefix())),
+                        rate::rejected);
+            }
+        }
+
+        if (limiter != null) {
+            registry.gauge(
+                    "winter_concurrency_limit",
+                    "Current adaptive concurrency limit.",
+                    Map.of(),
+                    limiter::limit);
+            for (var lane : ConcurrencyLimiter.Lane.values()) {
+                registry.counter(
+                        "winter_concurrency_shed_total",
+                        "Requests shed by the concurrency limit.",
+                        Map.of("lane", lane.name().toLowerCase()),
+                        () -> limiter.shed(lane));
+            }
+        }
+
+        if (bodyBudget != null) {
+            registry.gauge(
+                    "winter_body_budget_used_bytes",
+                    "Buffered request body bytes in use.",
+                    Map.of(),
+                    bodyBudget::usedBytes);
+            registry.counter(
+                    "winter_body_budget_rejections_total",
+                    "Requests rejected waiting for body budget.",
+                    Map.of(),
+                    bodyBudget::rejections);
+        }
+
+        if (responseCache != null) {
+            registry.counter(
+                    "winter_response_cache_hits_total",
+                    "Response cache hits.",
+                    Map.of(),
+                    responseCache::hits);
+            registry.counter(
+                    "winter_response_cache_misses_total",
+                    "Response cache misses.",
+                    Map.of(),
+                    responseCache::misses);
+            registry.gauge(
+                    "winter_response_cache_bytes",
+                    "Bytes held by the response cache.",
+                    Map.of(),
+                    responseCache::sizeBytes);
+        }
+
+        bulkheads.forEach(
+                (name, bulkhead) -> {
+                    var labels = Map.of("bulkhead", name);
+                    registry.gauge(
+                            "winter_bulkhead_active",
+                            "Requests running in a bulkhead.",
+                            labels,
+                            bulkhead::active);
+                    registry.gauge(
+                            "winter_bulkhead_queued",
+                            "Requests queued in a bulkhead.",
+                            labels,
+                            bulkhead::queued);
+                    registry.counter(
+                            "winter_bulkhead_rejected_total",
+                            "Requests rejected by a full bulkhead.",
+                            labels,
+                            bulkhead::rejected);
+                });
+    }
+
+    static void registerResources(MetricsRegistry registry, ResourceAccounting resources) {
+        registry.collector(
+                "winter_route_cpu_seconds_total",
+                "Thread CPU time of sampled requests by route file.",
+                "counter",
+                sink -> {
+                    for (RouteCost cost : resources.routes()) {
+                        sink.sample(Map.of("route", cost.route()), cost.cpuNanos() / 1e9);
+                    }
+                });
+        registry.collector(
+                "winter_route_allocated_bytes_total",
+                "Heap bytes allocated by sampled requests by route file.",
+                "counter",
+                sink -> {
+                    for (RouteCost cost : resources.routes()) {
+                        sink.sample(Map.of("route", cost.route()), cost.allocatedBytes());
+                    }
+                });
+        registry.collector(
+                "winter_route_cost_samples_total",
+                "Requests sampled for CPU and allocation accounting by route file.",
+                "counter",
+                sink -> {
+                    for (RouteCost cost : resources.routes()) {
+                        sink.sample(Map.of("route", cost.route()), cost.samples());
+                    }
+                });
+    }
+
+    static void registerAccessLog(MetricsRegistry registry, AccessLog accessLog) {
+        registry.counter(
+                "winter_access_log_written_total",
+                "Access log records written to disk.",
+                Map.of(),
+                accessLog::written);
+        registry.counter(
+                "winter_access_log_dropped_total",
+                "Access log records dropped because the buffer was full.",
+                Map.of(),
+                accessLog::dropped);
+    }
+
+    static void registerCapture(MetricsRegistry registry, TrafficCapture capture) {
+        registry.counter(
+                "winter_capture_written_total",
+                "Sampled requests written to the capture file.",
+                Map.of(),
+                capture::written);
+        registry.counter(
+                "winter_capture_dropped_total",
+                "Sampled requests dropped because the buffer or capture file was full.",
+                Map.of(),
+                capture::dropped);
+    }
+
+    static void registerWorker(MetricsRegistry registry, Undertow server) {
+        var worker = server.getWorker();
+        var bean = worker == null ? null : worker.getMXBean();
+        if (bean == null) return;
+        registry.gauge(
+                "winter_worker_queue_depth",
+                "Tasks waiting for an Undertow worker thread.",
+                Map.of(),
+                bean::getWorkerQueueSize);
+        registry.gauge(
+                "winter_worker_busy_threads",
+                "Undertow worker threads currently busy.",
+                Map.of(),
+                bean::getBusyWorkerThreadCount);
+    }
+
+    // One series per compiled route that has the feature; a negative value means "skip".
+    private static void perRoute(
+            MetricsRegistry registry,
+            Function<Path, String> routeLabel,
+            RouteCompiler compiler,
+            String name,
+            String help,
+            String type,
+            ToLongFunction<RouteHandle> value) {
+        registry.collector(
+                name,
+                help,
+                type,
+                sink ->
+                        compiler.forEachLoaded(
+                                (file, handle) -> {
+                                    long sample = value.applyAsLong(handle);
+                                    if (sample < 0) return;
+                                    sink.sample(Map.of("route", routeLabel.apply(file)), sample);
+                                }));
+    }
+}
@@ -6,36 +6,141 @@ import io.undertow.Undertow;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.server.handlers.BlockingHandler;
+import io.undertow.util.HeaderValues;
 import io.undertow.util.Headers;
-import io.undertow.util.HttpString;
 
+import winter.cache.ResponseCache;
+import winter.capture.TrafficCapture;
 import winter.compiler.RouteCompiler;
+import winter.compiler.RouteHandle;
+import winter.deadline.TimingWheel;
+import winter.jfr.RequestEvent;
+import winter.jfr.RouteExecutionEvent;
+import winter.limit.ConcurrencyLimiter;
+import winter.log.AccessLog;
+import winter.log.Log;
+import winter.metrics.MetricsRegistry;
+import winter.metrics.Phase;
+import winter.metrics.ResourceAccounting;
+import winter.metrics.RouteCost;
+import winter.metrics.SlowRequests;
 import winter.middleware.Middleware;
+import winter.middleware.MiddlewareChain;
+import winter.resilience.Bulkhead;
+import winter.resilience.BulkheadConfig;
 import winter.reload.RouteWatcher;
+import winter.profile.Profiler;
 import winter.router.FileRouter;
 import winter.router.RouteMatch;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public final class Winter {
 
+    private static final Res READY = Res.of(200, Map.of("status", "ready"));
+    private static final Res NOT_READY = Res.of(503, Map.of("status", "draining"));
+    private static final Res DRAINING =
+            new Res(503, Map.of("Retry-After", "1"), Map.of("error", "Service Unavailable"));
+    private static final Res OVERLOADED =
+            new Res(503, Map.of("Retry-After", "1"), Map.of("error", "Service Unavailable"));
+    private static final long MAX_TIMEOUT_MILLIS = TimeUnit.DAYS.toMillis(365);
+    private static final long MAX_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(MAX_TIMEOUT_MILLIS);
+    private static final String OVERLOADED_BODY = "{\"error\":\"Service Unavailable\"}";
+
     private final WinterConfig config;
     private final ObjectMapper objectMapper;
     private final FileRouter router;
     private final RouteCompiler compiler;
-    private final List<Middleware> middlewares;
+    private final MiddlewareChain middlewares;
+    private final ResponseCache responseCache;
+    private final BodyBudget bodyBudget;
+    private final ConcurrencyLimiter limiter;
+    private final RateLimits rateLimits;
+    private final TimingWheel timers;
+    private final long requestTimeoutNanos;
+    private final Map<String, Bulkhead> bulkheads;
+    private final LongAdder inflight = new LongAdder();
+    private final MetricsRegistry metrics;
+    private final SlowRequests slowRequests;
+    private final AccessLog accessLog;
+    private final ResourceAccounting resources;
+    private final TrafficCapture capture;
+    private final Function<Path, String> routeLabel;
+    private final Profiler profiler = new Profiler();
+    private volatile boolean draining;
 
     private Winter(WinterConfig config, List<Middleware> middlewares) {
         this.config = config;
         this.objectMapper = new ObjectMapper();
         this.router = new FileRouter(config.routesDir());
-        this.compiler = new RouteCompiler();
-        this.middlewares = List.copyOf(middlewares);
+        this.compiler = new RouteCompiler(config.routesDir(), middlewares);
+        this.middlewares = MiddlewareChain.of(middlewares);
+        this.responseCache =
+                config.responseCacheBytes() > 0
+                        ? new ResponseCache(config.responseCacheBytes())
+                        : null;
+        if (responseCache != null) compiler.onInvalidate(responseCache::invalidate);
+        this.bodyBudget =
+                config.bodyBudgetBytes() > 0
+                        ? new BodyBudget(config.bodyBudgetBytes(), config.bodyBudgetWait())
+                        : null;
+        this.limiter =
+                config.concurrency() != null ? new ConcurrencyLimiter(config.concurrency()) : null;
+        this.rateLimits = RateLimits.of(config.rateLimits());
+        this.timers = new TimingWheel(Duration.ofMillis(10), "winter-deadlines");
+        this.requestTimeoutNanos =
+                config.requestTimeout() == null ? 0 : config.requestTimeout().toNanos();
+        var named = new LinkedHashMap<String, Bulkhead>();
+        for (BulkheadConfig bulkhead : config.bulkheads()) {
+            if (named.putIfAbsent(bulkhead.name(), new Bulkhead(bulkhead)) != null) {
+                throw new IllegalArgumentException("Duplicate bulkhead: " + bulkhead.name());
+            }
+        }
+        this.bulkheads = Collections.unmodifiableMap(named);
+
+        Path routesRoot = config.routesDir().toAbsolutePath().normalize();
+        this.routeLabel = file -> routesRoot.relativize(file).toString().replace('\\', '/');
+        this.metrics = new MetricsRegistry(routeLabel);
+        ServerMetrics.register(
+                metrics,
+                routeLabel,
+                compiler,
+                inflight,
+                limiter,
+                rateLimits,
+                bodyBudget,
+                responseCache,
+                bulkheads);
+        this.slowRequests =
+                config.slowRequestThreshold() == null
+                        ? null
+                        : new SlowRequests(
+                                config.slowRequestThreshold().toNanos(),
+                                SlowRequests.DEFAULT_CAPACITY);
+        this.resources =
+                config.resourceSampleRate() > 0
+                        ? new ResourceAccounting(config.resourceSampleRate(), routeLabel)
+                        : null;
+        if (resources != null) ServerMetrics.registerResources(metrics, resources);
+        this.accessLog = config.accessLog() == null ? null : AccessLog.open(config.accessLog());
+        if (accessLog != null) ServerMetrics.registerAccessLog(metrics, accessLog);
+        this.capture = config.capture() == null ? null : TrafficCapture.open(config.capture());
+        if (capture != null) ServerMetrics.registerCapture(metrics, capture);
     }
 
     public static WinterServer start(WinterConfig config) {
@@ -44,45 +149,580 @@ public final class Winter {
 
     public static WinterServer start(WinterConfig config, Middleware... middlewares) {
         var winter = new Winter(config, Arrays.asList(middlewares));
+        if (winter.accessLog != null) Log.install(winter.accessLog);
 
         Undertow server =
                 Undertow.builder()
                         .addHttpListener(config.port(), config.host())
-                        .setHandler(new BlockingHandler(winter.handler()))
+                        .setHandler(winter.admission(new BlockingHandler(winter.handler())))
                         .build();
         server.start();
+        ServerMetrics.registerWorker(winter.metrics, server);
 
         AutoCloseable watcher = null;
         if (config.hotReload()) {
             watcher = RouteWatcher.start(config.routesDir(), winter.compiler);
         }
 
-        return new WinterServer(server, watcher);
+        return new WinterServer(server, watcher, winter);
+    }
+
+    WinterConfig config() {
+        return config;
+    }
+
+    BodyBudget bodyBudget() {
+        return bodyBudget;
+    }
+
+    ConcurrencyLimiter concurrencyLimiter() {
+        return limiter;
+    }
+
+    Map<String, Bulkhead> bulkheads() {
+        return bulkheads;
+    }
+
+    long inflight() {
+        return inflight.sum();
+    }
+
+    MetricsRegistry metrics() {
+        return metrics;
+    }
+
+    SlowRequests slowRequests() {
+        return slowRequests;
+    }
+
+    AccessLog accessLog() {
+        return accessLog;
+    }
+
+    ResourceAccounting resources() {
+        return resources;
+    }
+
+    TrafficCapture capture() {
+        return capture;
+    }
+
+    boolean isReady() {
+        return !draining;
+    }
+
+    void startDraining() {
+        draining = true;
+    }
+
+    boolean awaitDrained(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inflight.sum() > 0) {
+            if (System.nanoTime() - deadline >= 0) return false;
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void close() {
+        timers.close();
+        bulkheads.values().forEach(Bulkhead::close);
+        if (accessLog != null) {
+            Log.uninstall(accessLog);
+            accessLog.close();
+        }
+        if (capture != null) capture.close();
+    }
+
+    // Runs on the IO thread, before BlockingHandler hands the exchange to the worker pool, so
+    // an overloaded server sheds requests instead of queueing them for a worker. The latency
+    // fed to the limiter is measured from here and so includes that queue wait.
+    private HttpHandler admission(HttpHandler next) {
+        if (limiter == null) return next;
+        return exchange -> {
+            String path = exchange.getRequestPath();
+            var lane = isInternal(path) ? ConcurrencyLimiter.Lane.CRITICAL : limiter.lane(path);
+            if (!limiter.tryAcquire(lane)) {
+                closeIfDraining(exchange);
+                exchange.setStatusCode(OVERLOADED.status());
+                var headers = exchange.getResponseHeaders();
+                OVERLOADED.headers()
+                        .forEach((name, value) -> headers.put(HeaderNames.of(name), value));
+                headers.put(Headers.CONTENT_TYPE, "application/json; charset=utf-8");
+                exchange.getResponseSender().send(OVERLOADED_BODY);
+                return;
+            }
+            long arrived = System.nanoTime();
+            exchange.addExchangeCompleteListener(
+                    (completed, proceed) -> {
+                        limiter.release(lane, System.nanoTime() - arrived);
+                        proceed.proceed();
+                    });
+            next.handleRequest(exchange);
+        };
+    }
+
+    // Framework endpoints answer ahead of the routes and are never shed.
+    private boolean isInternal(String path) {
+        return path.equals(config.metricsPath())
+                || path.equals(config.slowRequestsPath())
+                || path.equals(config.resourceUsagePath())
+                || path.equals(config.profilePath())
+                || path.equals(config.readinessPath());
     }
 
     private HttpHandler handler() {
         return exchange -> {
-            RouteMatch match = router.match(exchange.getRequestPath());
-            var params = match == null ? Map.<String, String>of() : match.params();
-            var ctx = new Ctx(exchange, params, objectMapper, config.maxBodyBytes());
+            if (exchange.getRequestPath().equals(config.metricsPath())) {
+                var headers = exchange.getResponseHeaders();
+                headers.put(Headers.CONTENT_TYPE, MetricsRegistry.CONTENT_TYPE);
+                exchange.getResponseSender().send(metrics.scrape());
+                return;
+            }
+
+            if (slowRequests != null
+                    && exchange.getRequestPath().equals(config.slowRequestsPath())) {
+                var ctx = new Ctx(exchange, Map.of(), objectMapper, config, bodyBudget);
+                var entries = slowRequests.snapshot().stream().map(SlowRequests.Entry::toMap);
+                writeResult(exchange, ctx, entries.toList());
+                return;
+            }
 
-            Object result = execute(ctx, () -> dispatch(match, exchange, ctx));
-            writeResult(exchange, result);
+            if (resources != null && exchange.getRequestPath().equals(config.resourceUsagePath())) {
+                var ctx = new Ctx(exchange, Map.of(), objectMapper, config, bodyBudget);
+                writeResult(exchange, ctx, resourceReport());
+                return;
+            }
+
+            if (exchange.getRequestPath().equals(config.profilePath())) {
+                var ctx = new Ctx(exchange, Map.of(), objectMapper, config, bodyBudget);
+                writeResult(exchange, ctx, profile(ctx));
+                return;
+            }
+
+            if (exchange.getRequestPath().equals(config.readinessPath())) {
+                var ctx = new Ctx(exchange, Map.of(), objectMapper, config, bodyBudget);
+                writeResult(exchange, ctx, draining ? NOT_READY : READY);
+                return;
+            }
+
+            // Counted before the draining check: close() sets draining and then waits for the
+            // count to reach zero, so every request is either turned away here or waited for.
+            inflight.increment();
+            boolean handedOff = false;
+            try {
+                if (draining) {
+                    var ctx = new Ctx(exchange, Map.of(), objectMapper, config, bodyBudget);
+                    writeResult(exchange, ctx, DRAINING);
+                    return;
+                }
+                handedOff = route(exchange);
+            } finally {
+                if (!handedOff) inflight.decrement();
+            }
         };
     }
 
-    @FunctionalInterface
-    private interface TerminalHandler {
-        Object handle() throws Exception;
+    // Returns true when the request was handed to a bulkhead, which then owns the in-flight
+    // count.
+    private boolean route(HttpServerExchange exchange) throws Exception {
+        var event = new RequestEvent();
+        event.begin();
+        var timing = new RequestTiming();
+        if (resources != null && resources.sample()) timing.account();
+        if (capture != null && capture.sample()) timing.capture();
+        RouteMatch match = router.match(exchange.getRequestPath());
+        timing.add(Phase.MATCH, System.nanoTime() - timing.start());
+        observe(exchange, match, timing, event);
+        // Bulkheads may be chosen by route annotation, so the route is resolved up front
+        // only when some are configured.
+        Target target = bulkheads.isEmpty() || match == null ? null : resolve(match, timing);
+        Bulkhead bulkhead = bulkheadFor(exchange.getRequestPath(), target);
+
+        if (bulkhead == null) {
+            handle(exchange, match, target, timing);
+            return false;
+        }
+
+        if (!bulkhead.tryAcquire()) {
+            var ctx = new Ctx(exchange, Map.of(), objectMapper, config, bodyBudget);
+            writeResult(exchange, ctx, OVERLOADED);
+            return false;
+        }
+        exchange.dispatch(
+                bulkhead.executor(),
+                isolated -> {
+                    try {
+                        handle(isolated, match, target, timing);
+                    } finally {
+                        bulkhead.release();
+                        inflight.decrement();
+                    }
+                });
+        return true;
+    }
+
+    // Blocks this worker for the whole session; only one runs at a time.
+    private Object profile(Ctx ctx) throws InterruptedException {
+        long seconds;
+        try {
+            seconds = ctx.query("seconds") == null ? 10 : Long.parseLong(ctx.query("seconds"));
+        } catch (NumberFormatException exception) {
+            return Res.of(400, Map.of("error", "Bad Request", "message", "Invalid seconds"));
+        }
+        try {
+            return profiler.collapsedStacks(Duration.ofSeconds(seconds), ctx.query("route"));
+        } catch (IllegalArgumentException exception) {
+            return Res.of(400, Map.of("error", "Bad Request", "message", exception.getMessage()));
+        } catch (IllegalStateException exception) {
+            return Res.of(409, Map.of("error", "Conflict", "message", exception.getMessage()));
+        }
+    }
+
+    private Map<String, Object> resourceReport() {
+        var byAllocation =
+                resources.top(20, Comparator.comparingLong(RouteCost::allocatedBytesPerRequest));
+        var byCpu = resources.top(20, Comparator.comparingLong(RouteCost::cpuNanosPerRequest));
+        return Map.of(
+                "sampleRate",
+                resources.sampleRate(),
+                "byAllocation",
+                byAllocation.stream().map(RouteCost::toMap).toList(),
+                "byCpu",
+                byCpu.stream().map(RouteCost::toMap).toList());
+    }
+
+    // Recorded on completion so bulkhead queueing and rejections land in the same histogram
+    // with the status the client actually saw.
+    private void observe(
+            HttpServerExchange exchange,
+            RouteMatch match,
+            RequestTiming timing,
+            RequestEvent event) {
+        exchange.addExchangeCompleteListener(
+                (completed, next) -> {
+                    try {
+                        long elapsed = System.nanoTime() - timing.start();
+                        int status = completed.getStatusCode();
+                        String method = completed.getRequestMethod().toString();
+                        String route = null;
+                        if (match == null) {
+                            metrics.recordUnmatched();
+                        } else {
+                            var routeMetrics = metrics.route(match.file(), method);
+                            routeMetrics.record(status, elapsed, timing.phases());
+                            route = routeMetrics.route();
+                        }
+                        if (match != null && timing.accounted()) {
+                            resources.record(
+                                    match.file(), timing.cpuNanos(), timing.allocatedBytes());
+                        }
+                        if (accessLog != null) {
+                            accessLog.request(
+                                    method,
+                                    completed.getRequestPath(),
+                                    route,
+                                    RateLimits.clientIp(completed),
+                                    status,
+                                    elapsed,
+                                    completed.getResponseBytesSent());
+                        }
+                        if (timing.captured()) captured(completed, timing, status, elapsed);
+                        if (slowRequests != null) {
+                            slowRequests.offer(
+                                    method,
+                                    completed.getRequestPath(),
+                                    route,
+                                    status,
+                                    elapsed,
+                                    timing.phases());
+                        }
+                        event.end();
+                        if (event.shouldCommit()) {
+                            event.method = method;
+                            event.path = completed.getRequestPath();
+                            event.route = route;
+                            event.status = status;
+                            event.match = timing.get(Phase.MATCH);
+                            event.load = timing.get(Phase.LOAD);
+                            event.middleware = timing.get(Phase.MIDDLEWARE);
+                            event.handler = timing.get(Phase.HANDLER);
+                            event.serialize = timing.get(Phase.SERIALIZE);
+                            event.commit();
+                        }
+                    } finally {
+                        next.proceed();
+                    }
+                });
+    }
+
+    private void captured(
+            HttpServerExchange exchange, RequestTiming timing, int status, long elapsed) {
+        var requestHeaders = exchange.getRequestHeaders();
+        var headers = new ArrayList<String>();
+        for (String name : capture.config().headers()) {
+            HeaderValues values = requestHeaders.get(HeaderNames.of(name));
+            if (values == null) continue;
+            for (String value : values) {
+                headers.add(name);
+                headers.add(value);
+            }
+        }
+        byte[] body = timing.capturedBody();
+        boolean hasBody =
+                exchange.getRequestContentLength() > 0
+                        || requestHeaders.contains(HeaderNames.of("Transfer-Encoding"));
+        capture.record(
+                timing.start(),
+                elapsed,
+                status,
+                exchange.getRequestMethod().toString(),
+                rawTarget(exchange),
+                headers,
+                body,
+                body == null && hasBody);
+    }
+
+    // The target as the client sent it: getRequestPath() is already decoded, which turns %2F and
+    // %3F into a different request and a space into a target that cannot be sent again. An
+    // absolute-form request line keeps only its path, so replays go to the replay target.
+    private static String rawTarget(HttpServerExchange exchange) {
+        String uri = exchange.getRequestURI();
+        int authority = uri.startsWith("/") ? -1 : uri.indexOf("://");
+        if (authority >= 0) {
+            int path = uri.indexOf('/', authority + 3);
+            uri = path < 0 ? "/" : uri.substring(path);
+        }
+        String query = exchange.getQueryString();
+        return query == null || query.isEmpty() ? uri : uri + "?" + query;
+    }
+
+    // Sampled requests with a small, known-length body read it once admitted, before the route
+    // runs, so the capture can keep it; the route then reads the same bytes from the Ctx cache
+    // (or gets the same error the read failed with). Multipart uploads are left alone because
+    // they can only be streamed once.
+    private void bufferForCapture(HttpServerExchange exchange, Ctx ctx, RequestTiming timing) {
+        long length = exchange.getRequestContentLength();
+        if (length <= 0 || length > capture.config().maxBodyBytes()) return;
+        if (config.maxBodyBytes() > 0 && length > config.maxBodyBytes()) return;
+        String type = ctx.header("Content-Type");
+        if (type != null && type.regionMatches(true, 0, "multipart/", 0, 10)) return;
+        timing.capturedBody(ctx.prefetchBody());
+    }
+
+    private Bulkhead bulkheadFor(String path, Target target) {
+        if (bulkheads.isEmpty()) return null;
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            if (bulkhead.config().matches(path)) return bulkhead;
+        }
+
+        // Unknown names never get here: resolve() turns them into a route failure.
+        String name = target == null || target.handle() == null ? null : target.handle().bulkhead();
+        return name == null ? null : bulkheads.get(name);
+    }
+
+    private void handle(
+            HttpServerExchange exchange, RouteMatch match, Target resolved, RequestTiming timing)
+            throws Exception {
+        var cached =
+                responseCache == null || match == null
+                        ? null
+                        : responseCache.lookup(exchange, match.file());
+        if (cached != null && cached.isHit()) {
+            closeIfDraining(exchange);
+            cached.serve(exchange);
+            return;
+        }
+
+        try (cached) {
+            var params = match == null ? Map.<String, String>of() : match.params();
+            var ctx = new Ctx(exchange, params, objectMapper, config, bodyBudget);
+            ctx.timing(timing);
+
+            ByteBuffer body = run(match, resolved, exchange, ctx);
+            if (cached != null) cached.complete(exchange, body);
+        }
+    }
+
+    // Returns the bytes written when the route ran, or null when it was rejected up front.
+    private ByteBuffer run(
+            RouteMatch match, Target resolved, HttpServerExchange exchange, Ctx ctx) {
+        Res limited = rateLimits == null ? null : rateLimits.check(exchange);
+        if (limited != null) {
+            writeResult(exchange, ctx, limited);
+            return null;
+        }
+
+        var target = resolved != null ? resolved : resolve(match, ctx.timing());
+        var routeLimiter = target.handle() == null ? null : target.handle().rateLimiter();
+        limited = routeLimiter == null ? null : RateLimits.check(routeLimiter, exchange);
+        if (limited != null) {
+            writeResult(exchange, ctx, limited);
+            return null;
+        }
+
+        var timing = ctx.timing();
+        if (timing != null && timing.captured()) bufferForCapture(exchange, ctx, timing);
+        Cancellation cancellation = cancellationFor(exchange, target.handle());
+        ctx.cancellation(cancellation);
+        try {
+            long start = System.nanoTime();
+            Object result =
+                    target.chain()
+                            .execute(
+                                    ctx,
+                                    () -> guarded(cancellation, match, target, exchange, ctx),
+                                    this::defaultError);
+            if (timing != null) {
+                long chain = System.nanoTime() - start;
+                timing.add(Phase.MIDDLEWARE, chain - timing.get(Phase.HANDLER));
+            }
+            return writeResult(exchange, ctx, result);
+        } finally {
+            if (cancellation != null) cancellation.finish();
+        }
+    }
+
+    // The tightest of the route's @Timeout (or the global requestTimeout) and the deadline the
+    // client sent, counted from now.
+    private Cancellation cancellationFor(HttpServerExchange exchange, RouteHandle handle) {
+        long timeout = handle != null && handle.timeoutNanos() > 0 ? handle.timeoutNanos() : 0;
+        if (timeout == 0) timeout = requestTimeoutNanos;
+
+        long requested = clientTimeoutNanos(exchange);
+        if (requested >= 0 && (timeout == 0 || requested < timeout)) timeout = requested;
+        else if (timeout == 0) return null;
+        // Saturated values (e.g. @Timeout(millis = Long.MAX_VALUE)) would overflow into a
+        // deadline in the past and an immediate 504.
+        return new Cancellation(System.nanoTime() + Math.min(timeout, MAX_TIMEOUT_NANOS));
+    }
+
+    private long clientTimeoutNanos(HttpServerExchange exchange) {
+        if (config.deadlineHeader() == null) return -1;
+        String header =
+                exchange.getRequestHeaders().getFirst(HeaderNames.of(config.deadlineHeader()));
+        if (header == null) return -1;
+        try {
+            long millis = Long.parseLong(header.trim());
+            if (millis < 0) return -1;
+            return TimeUnit.MILLISECONDS.toNanos(Math.min(millis, MAX_TIMEOUT_MILLIS));
+        } catch (NumberFormatException ignored) {
+            // Malformed client deadlines are ignored rather than rejected.
+            return -1;
+        }
     }
 
-    private Object dispatch(RouteMatch match, HttpServerExchange exchange, Ctx ctx)
+    // The breaker rejects by throwing, so middleware onError sees the short-circuit like any
+    // other route error.
+    private Object guarded(
+            Cancellation cancellation,
+            RouteMatch match,
+            Target target,
+            HttpServerExchange exchange,
+            Ctx ctx)
+            throws Exception {
+        var breaker = target.handle() == null ? null : target.handle().circuitBreaker();
+        if (breaker == null) return dispatchWithin(cancellation, match, target, exchange, ctx);
+        if (!breaker.tryAcquire()) throw breaker.rejection();
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = dispatchWithin(cancellation, match, target, exchange, ctx);
+            failed = result instanceof Res res && res.status() >= 500;
+            return result;
+        } catch (HttpError error) {
+            failed = error.status() >= 500;
+            throw error;
+        } finally {
+            breaker.record(failed, System.nanoTime() - start);
+        }
+    }
+
+    private Object dispatchWithin(
+            Cancellation cancellation,
+            RouteMatch match,
+            Target target,
+            HttpServerExchange exchange,
+            Ctx ctx)
+            throws Exception {
+        if (cancellation == null) return dispatch(match, target, exchange, ctx);
+
+        cancellation.arm(exchange, timers);
+        try {
+            if (cancellation.isCancelled()) throw cancellation.error();
+            Object result = dispatch(match, target, exchange, ctx);
+            if (cancellation.isCancelled()) throw cancellation.error();
+            return result;
+        } catch (HttpError error) {
+            throw error;
+        } catch (Exception exception) {
+            if (cancellation.isCancelled()) throw cancellation.error();
+            throw exception;
+        } finally {
+            cancellation.finish();
+        }
+    }
+
+    private record Target(RouteHandle handle, MiddlewareChain chain, Exception failure) {}
+
+    // Compile failures still run through the global middleware so they are logged and
+    // shaped the same way as any other route error.
+    private Target resolve(RouteMatch match, RequestTiming timing) {
+        if (match == null) return new Target(null, middlewares, null);
+        long start = System.nanoTime();
+        try {
+            RouteHandle handle = compiler.load(match.file());
+            if (handle.bulkhead() != null && !bulkheads.containsKey(handle.bulkhead())) {
+                throw new IllegalStateException(
+                        "Unknown bulkhead \"%s\" in @Isolated on %s"
+                                .formatted(handle.bulkhead(), routeLabel.apply(match.file())));
+            }
+            return new Target(handle, compiler.chain(match.file(), handle), null);
+        } catch (Exception exception) {
+            return new Target(null, middlewares, exception);
+        } finally {
+            if (timing != null) timing.add(Phase.LOAD, System.nanoTime() - start);
+        }
+    }
+
+    private Object dispatch(
+            RouteMatch match, Target target, HttpServerExchange exchange, Ctx ctx)
+            throws Exception {
+        var timing = ctx.timing();
+        var execution = new RouteExecutionEvent();
+        if (timing != null) timing.markUsage();
+        execution.begin();
+        long start = System.nanoTime();
+        try {
+            return invoke(match, target, exchange, ctx);
+        } finally {
+            execution.end();
+            if (timing != null) {
+                timing.add(Phase.HANDLER, System.nanoTime() - start);
+                timing.addUsage();
+            }
+            if (match != null && execution.shouldCommit()) {
+                execution.route = routeLabel.apply(match.file());
+                execution.commit();
+            }
+        }
+    }
+
+    private Object invoke(
+            RouteMatch match, Target target, HttpServerExchange exchange, Ctx ctx)
             throws Exception {
         if (match == null) {
             return Res.of(404, Map.of("error", "Not Found"));
         }
+        if (target.failure() != null) throw target.failure();
 
-        var handle = compiler.load(match.file());
+        var handle = target.handle();
         var method = exchange.getRequestMethod().toString().toUpperCase();
         var verb = method.toLowerCase();
 
@@ -130,57 +770,12 @@ public final class Winter {
         if (allowed.contains(method)) out.add(method);
     }
 
-    private Object execute(Ctx ctx, TerminalHandler terminal) {
-        var executed = new ArrayList<Middleware>(middlewares.size());
-        Object early = null;
-        try {
-            for (Middleware middleware : middlewares) {
-                executed.add(middleware);
-                early = middleware.before(ctx);
-                if (early != null) break;
-            }
-
-            Object result = early != null ? early : terminal.handle();
-
-            for (int i = executed.size() - 1; i >= 0; i--) {
-                result = executed.get(i).after(ctx, result);
-            }
-
-            return result;
-        } catch (Exception exception) {
-            Object result = null;
-            Exception current = exception;
-
-            for (int i = executed.size() - 1; i >= 0; i--) {
-                try {
-                    result = executed.get(i).onError(ctx, current);
-                    current = null;
-                    break;
-                } catch (Exception next) {
-                    current = next;
-                }
-            }
-
-            if (current != null) {
-                result = defaultError(ctx, current);
-            }
-
-            for (int i = executed.size() - 1; i >= 0; i--) {
-                try {
-                    result = executed.get(i).after(ctx, result);
-                } catch (Exception ignored) {
-                    // Best-effort after hooks; response will fall back to what we have.
-                }
-            }
-
-            return result;
-        }
-    }
-
     private Object defaultError(Ctx ctx, Exception exception) {
-        if (exception instanceof HttpError error) return Res.of(error.status(), error.body());
+        if (exception instanceof HttpError error) {
+            return new Res(error.status(), error.headers(), error.body());
+        }
 
-        exception.printStackTrace(System.err);
+        Log.error("Route failed: " + ctx.method() + " " + ctx.path(), exception);
         if (config.exposeErrors()) {
             return Res.of(
                     500,
@@ -193,13 +788,14 @@ public final class Winter {
         return Res.of(500, Map.of("error", "Internal Server Error"));
     }
 
-    private void writeResult(HttpServerExchange exchange, Object result) {
-        boolean head = exchange.getRequestMethod().equalToString("HEAD");
+    // Responses finished while draining close their keep-alive connection behind them.
+    private void closeIfDraining(HttpServerExchange exchange) {
+        if (draining) exchange.getResponseHeaders().put(Headers.CONNECTION, "close");
+    }
 
-        if (result == null) {
-            exchange.setStatusCode(204);
-            return;
-        }
+    private ByteBuffer writeResult(HttpServerExchange exchange, Ctx ctx, Object result) {
+        closeIfDraining(exchange);
+        boolean head = exchange.getRequestMethod().equalToString("HEAD");
 
         if (result instanceof Res res) {
             exchange.setStatusCode(res.status());
@@ -207,38 +803,53 @@ public final class Winter {
                     .forEach(
                             (name, value) ->
                                     exchange.getResponseHeaders()
-                                            .put(HttpString.tryFromString(name), value));
-            writeResult(exchange, res.body());
-            return;
+                                            .put(HeaderNames.of(name), value));
+            ctx.applyResponseHeaders(exchange);
+            if (res.status() == 304) {
+                notModified(exchange, ctx.validator());
+                return null;
+            }
+            return writeResult(exchange, ctx, res.body());
+        }
+
+        ctx.applyResponseHeaders(exchange);
+
+        if (result == null) {
+            exchange.setStatusCode(204);
+            return null;
         }
 
         if (result instanceof String text) {
-            if (head) {
-                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
-                exchange.setResponseContentLength(bytes.length);
-                exchange.getResponseHeaders()
-                        .put(Headers.CONTENT_TYPE, "text/plain; charset=utf-8");
-                return;
-            }
+            long start = serializing(ctx);
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            serialized(exchange, ctx, start);
             exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "text/plain; charset=utf-8");
-            exchange.getResponseSender().send(text, StandardCharsets.UTF_8);
-            return;
+            if (isNotModified(exchange, ctx, () -> ETag.of(bytes))) return null;
+            exchange.setResponseContentLength(bytes.length);
+            if (!head) exchange.getResponseSender().send(ByteBuffer.wrap(bytes));
+            return ByteBuffer.wrap(bytes);
         }
 
         int status = exchange.getStatusCode();
         if (status == 0) status = 200;
-        writeJson(exchange, status, result, !head);
+        return writeJson(exchange, ctx, status, result, !head);
     }
 
-    private void writeJson(HttpServerExchange exchange, int status, Object body, boolean sendBody) {
+    private ByteBuffer writeJson(
+            HttpServerExchange exchange, Ctx ctx, int status, Object body, boolean sendBody) {
         exchange.setStatusCode(status);
         exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json; charset=utf-8");
         try {
-            byte[] bytes = objectMapper.writeValueAsBytes(body);
-            exchange.setResponseContentLength(bytes.length);
+            long start = serializing(ctx);
+            var out = new ETag.HashingOutputStream();
+            objectMapper.writeValue(out, body);
+            serialized(exchange, ctx, start);
+            if (isNotModified(exchange, ctx, out::etag)) return null;
+            exchange.setResponseContentLength(out.size());
             if (sendBody) {
-                exchange.getResponseSender().send(new String(bytes, StandardCharsets.UTF_8));
+                exchange.getResponseSender().send(out.buffer());
             }
+            return out.buffer();
         } catch (Exception exception) {
             exchange.setStatusCode(500);
             exchange.getResponseHeaders()
@@ -246,6 +857,51 @@ public final class Winter {
             if (sendBody) {
                 exchange.getResponseSender().send("{\"error\":\"Internal Server Error\"}");
             }
+            return null;
+        }
+    }
+
+    // Server-Timing has to go out with the headers, so it covers everything up to the body
+    // being encoded but not the write itself.
+    private static long serializing(Ctx ctx) {
+        var timing = ctx.timing();
+        if (timing != null) timing.markUsage();
+        return System.nanoTime();
+    }
+
+    private void serialized(HttpServerExchange exchange, Ctx ctx, long start) {
+        var timing = ctx.timing();
+        if (timing == null) return;
+        timing.add(Phase.SERIALIZE, System.nanoTime() - start);
+        timing.addUsage();
+        if (config.serverTiming()) {
+            exchange.getResponseHeaders().put(HeaderNames.of("Server-Timing"), timing.header());
+        }
+    }
+
+    private static boolean isNotModified(
+            HttpServerExchange exchange, Ctx ctx, Supplier<String> computed) {
+        if (exchange.getStatusCode() != 200) return false;
+        if (!exchange.getRequestMethod().equalToString("GET")
+                && !exchange.getRequestMethod().equalToString("HEAD")) return false;
+
+        String etag = exchange.getResponseHeaders().getFirst(Headers.ETAG);
+        if (etag == null) etag = ctx.validator();
+        if (etag == null) etag = computed.get();
+        exchange.getResponseHeaders().put(Headers.ETAG, etag);
+
+        if (!ETag.matches(exchange.getRequestHeaders().getFirst(Headers.IF_NONE_MATCH), etag)) {
+            return false;
+        }
+        notModified(exchange, etag);
+        return true;
+    }
+
+    private static void notModified(HttpServerExchange exchange, String etag) {
+        exchange.setStatusCode(304);
+        exchange.getResponseHeaders().remove(Headers.CONTENT_TYPE);
+        if (etag != null && !exchange.getResponseHeaders().contains(Headers.ETAG)) {
+            exchange.getResponseHeaders().put(Headers.ETAG, etag);
         }
     }
 }
@@ -1,6 +1,15 @@
 package winter;
 
+import winter.capture.CaptureConfig;
+import winter.limit.ConcurrencyConfig;
+import winter.limit.RateLimit;
+import winter.log.AccessLogConfig;
+import winter.multipart.MultipartConfig;
+import winter.resilience.BulkheadConfig;
+
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 
 public record WinterConfig(
         Path routesDir,
@@ -8,30 +17,717 @@ public record WinterConfig(
         int port,
         int maxBodyBytes,
         boolean exposeErrors,
-        boolean hotReload) {
+        boolean hotReload,
+        long responseCacheBytes,
+        MultipartConfig multipart,
+        long bodyBudgetBytes,
+        Duration bodyBudgetWait,
+        ConcurrencyConfig concurrency,
+        List<RateLimit> rateLimits,
+        Duration requestTimeout,
+        String deadlineHeader,
+        String readinessPath,
+        Duration shutdownTimeout,
+        List<BulkheadConfig> bulkheads,
+        String metricsPath,
+        boolean serverTiming,
+        Duration slowRequestThreshold,
+        String slowRequestsPath,
+        AccessLogConfig accessLog,
+        double resourceSampleRate,
+        String resourceUsagePath,
+        String profilePath,
+        CaptureConfig capture) {
     public static final int DEFAULT_MAX_BODY_BYTES = 1024 * 1024;
 
     public static WinterConfig of(Path routesDir) {
-        return new WinterConfig(routesDir, "0.0.0.0", 8080, DEFAULT_MAX_BODY_BYTES, false, false);
+        return new WinterConfig(
+                routesDir,
+                "0.0.0.0",
+                8080,
+                DEFAULT_MAX_BODY_BYTES,
+                false,
+                false,
+                0,
+                MultipartConfig.defaults(),
+                0,
+                Duration.ofSeconds(1),
+                null,
+                List.of(),
+                null,
+                null,
+                null,
+                Duration.ofSeconds(30),
+                List.of(),
+                null,
+                false,
+                null,
+                null,
+                null,
+                0,
+                null,
+                null,
+                null);
     }
 
     public WinterConfig withHost(String host) {
-        return new WinterConfig(routesDir, host, port, maxBodyBytes, exposeErrors, hotReload);
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
     }
 
     public WinterConfig withPort(int port) {
-        return new WinterConfig(routesDir, host, port, maxBodyBytes, exposeErrors, hotReload);
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
     }
 
     public WinterConfig withMaxBodyBytes(int maxBodyBytes) {
-        return new WinterConfig(routesDir, host, port, maxBodyBytes, exposeErrors, hotReload);
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
     }
 
     public WinterConfig withExposeErrors(boolean exposeErrors) {
-        return new WinterConfig(routesDir, host, port, maxBodyBytes, exposeErrors, hotReload);
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
     }
 
     public WinterConfig withHotReload(boolean hotReload) {
-        return new WinterConfig(routesDir, host, port, maxBodyBytes, exposeErrors, hotReload);
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withResponseCache(long responseCacheBytes) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withMultipart(MultipartConfig multipart) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withBodyBudget(long bodyBudgetBytes, Duration bodyBudgetWait) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withConcurrencyLimit(ConcurrencyConfig concurrency) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withRateLimits(List<RateLimit> rateLimits) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withRequestTimeout(Duration requestTimeout) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withDeadlineHeader(String deadlineHeader) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withReadinessPath(String readinessPath) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withShutdownTimeout(Duration shutdownTimeout) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withBulkheads(List<BulkheadConfig> bulkheads) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withMetricsPath(String metricsPath) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withServerTiming(boolean serverTiming) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withSlowRequests(Duration slowRequestThreshold, String slowRequestsPath) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withAccessLog(AccessLogConfig accessLog) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withResourceAccounting(
+            double resourceSampleRate, String resourceUsagePath) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withProfilePath(String profilePath) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
+    }
+
+    public WinterConfig withCapture(CaptureConfig capture) {
+        return new WinterConfig(
+                routesDir,
+                host,
+                port,
+                maxBodyBytes,
+                exposeErrors,
+                hotReload,
+                responseCacheBytes,
+                multipart,
+                bodyBudgetBytes,
+                bodyBudgetWait,
+                concurrency,
+                rateLimits,
+                requestTimeout,
+                deadlineHeader,
+                readinessPath,
+                shutdownTimeout,
+                bulkheads,
+                metricsPath,
+                serverTiming,
+                slowRequestThreshold,
+                slowRequestsPath,
+                accessLog,
+                resourceSampleRate,
+                resourceUsagePath,
+                profilePath,
+                capture);
     }
 }
@@ -2,22 +2,81 @@ package winter;
 
 import io.undertow.Undertow;
 
+import winter.capture.TrafficCapture;
+import winter.limit.ConcurrencyLimiter;
+import winter.log.AccessLog;
+import winter.metrics.MetricsRegistry;
+import winter.metrics.ResourceAccounting;
+import winter.metrics.SlowRequests;
+import winter.resilience.Bulkhead;
+
+import java.util.Map;
+
 public final class WinterServer implements AutoCloseable {
 
     private final Undertow server;
     private final AutoCloseable routeWatcher;
+    private final Winter winter;
 
-    WinterServer(Undertow server, AutoCloseable routeWatcher) {
+    WinterServer(Undertow server, AutoCloseable routeWatcher, Winter winter) {
         this.server = server;
         this.routeWatcher = routeWatcher;
+        this.winter = winter;
+    }
+
+    public BodyBudget bodyBudget() {
+        return winter.bodyBudget();
+    }
+
+    public ConcurrencyLimiter concurrencyLimiter() {
+        return winter.concurrencyLimiter();
+    }
+
+    public Map<String, Bulkhead> bulkheads() {
+        return winter.bulkheads();
+    }
+
+    public long inflight() {
+        return winter.inflight();
+    }
+
+    public MetricsRegistry metrics() {
+        return winter.metrics();
     }
 
+    public SlowRequests slowRequests() {
+        return winter.slowRequests();
+    }
+
+    public AccessLog accessLog() {
+        return winter.accessLog();
+    }
+
+    public ResourceAccounting resources() {
+        return winter.resources();
+    }
+
+    public TrafficCapture capture() {
+        return winter.capture();
+    }
+
+    public boolean isReady() {
+        return winter.isReady();
+    }
+
+    // Fails readiness, stops accepting connections and lets in-flight requests finish (up to
+    // shutdownTimeout) before the watcher and server go away.
     @Override
     public void close() {
+        winter.startDraining();
+        for (var listener : server.getListenerInfo()) listener.suspend();
+        winter.awaitDrained(winter.config().shutdownTimeout());
+
         try {
             if (routeWatcher != null) routeWatcher.close();
         } catch (Exception ignored) {
         }
         server.stop();
+        winter.close();
     }
 }
@@ -0,0 +1,476 @@
+package winter.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.HeaderMap;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import io.undertow.util.HttpString;
+
+import winter.router.FileRouter;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ResponseCache {
+
+    private static final long LEADER_WAIT_MILLIS = 5_000;
+    private static final long ACCESS_GRANULARITY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final Set<String> SKIPPED_HEADERS =
+            Set.of(
+                    "age",
+                    "connection",
+                    "content-length",
+                    "date",
+                    "keep-alive",
+                    "server-timing",
+                    "transfer-encoding");
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Path, Long> generations = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry>> inflight = new ConcurrentHashMap<>();
+    private final Map<String, List<HttpString>> varyByBaseKey = new ConcurrentHashMap<>();
+    private final Set<Path> cacheableRoutes = ConcurrentHashMap.newKeySet();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long bytes;
+
+    public ResponseCache(long maxBytes) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes must be > 0");
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.max(1, maxBytes / 8);
+    }
+
+    public Lookup lookup(HttpServerExchange exchange, Path routeFile) {
+        boolean get = exchange.getRequestMethod().equalToString("GET");
+        if (!get && !exchange.getRequestMethod().equalToString("HEAD")) return null;
+
+        HeaderMap request = exchange.getRequestHeaders();
+        if (request.contains(Headers.AUTHORIZATION)) return null;
+
+        Directives directives = Directives.parse(request.get(Headers.CACHE_CONTROL));
+        if (directives.noStore) return null;
+        boolean revalidate = directives.noCache || directives.maxAge == 0;
+
+        // Cookies usually carry a session, so a shared entry could leak one user's response to
+        // another; only routes that answer with Vary: Cookie (keyed per cookie) are served.
+        String baseKey = baseKey(exchange);
+        if (request.contains(Headers.COOKIE) && !variesOnCookie(varyByBaseKey.get(baseKey))) {
+            return null;
+        }
+        String key = key(baseKey, request);
+        long now = System.nanoTime();
+
+        Entry cached = revalidate ? null : get(key, now);
+        if (cached != null && cached.isFresh(now)) return hit(cached);
+        if (!get) return null;
+
+        var mine = new CompletableFuture<Entry>();
+        CompletableFuture<Entry> leader = inflight.putIfAbsent(key, mine);
+        if (leader == null) {
+            misses.increment();
+            return new Lookup(key, baseKey, routeFile, generation(routeFile), mine, null);
+        }
+
+        // Someone else is already filling this key: serve stale data while it does, or wait
+        // for it if the route is known to produce cacheable responses.
+        if (revalidate) return null;
+        if (cached != null && cached.isServableStale(now)) return hit(cached);
+        if (!cacheableRoutes.contains(routeFile)) return null;
+        try {
+            Entry filled = leader.get(LEADER_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            if (filled != null) return hit(filled);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ignored) {
+            // Leader failed or timed out; run the route ourselves.
+        }
+        return null;
+    }
+
+    public void invalidate(Path routeFile) {
+        if (routeFile == null) return;
+        // A scoped middleware change affects every route beneath its directory.
+        Path scope = FileRouter.isMiddlewareFile(routeFile) ? routeFile.getParent() : null;
+        if (scope != null) cacheableRoutes.removeIf(route -> route.startsWith(scope));
+        else cacheableRoutes.remove(routeFile);
+        synchronized (this) {
+            // Fills that started before this see a different generation and are not stored.
+            generations.merge(scope != null ? scope : routeFile, 1L, Long::sum);
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                boolean affected =
+                        scope != null
+                                ? entry.routeFile.startsWith(scope)
+                                : entry.routeFile.equals(routeFile);
+                if (!affected) continue;
+                iterator.remove();
+                bytes -= entry.size();
+            }
+        }
+    }
+
+    public int entryCount() {
+        return entries.size();
+    }
+
+    public long sizeBytes() {
+        return bytes;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    private Lookup hit(Entry entry) {
+        hits.increment();
+        return new Lookup(null, null, entry.routeFile, 0, null, entry);
+    }
+
+    // Hits only read the map and, at most once per ACCESS_GRANULARITY_NANOS, stamp the entry,
+    // so cached reads never queue behind each other on a lock.
+    private Entry get(String key, long now) {
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.lastUsed > ACCESS_GRANULARITY_NANOS) entry.lastUsed = now;
+        return entry;
+    }
+
+    // Writes are fills and invalidations, which are rare next to hits. Eviction is approximate
+    // LRU by last-use stamp and goes down to a low-water mark, so a full cache sorts once per
+    // batch of fills rather than on every one.
+    private synchronized boolean put(Entry entry, long generation) {
+        if (generation(entry.routeFile) != generation) return false;
+        Entry previous = entries.put(entry.key, entry);
+        long size = bytes + entry.size() - (previous == null ? 0 : previous.size());
+        if (size > maxBytes) {
+            var byAge = new ArrayList<>(entries.values());
+            byAge.sort(Comparator.comparingLong(candidate -> candidate.lastUsed));
+            long lowWater = maxBytes - maxBytes / 8;
+            for (int i = 0; i < byAge.size() && size > lowWater; i++) {
+                Entry evicted = byAge.get(i);
+                if (evicted == entry) continue;
+                entries.remove(evicted.key, evicted);
+                size -= evicted.size();
+            }
+        }
+        bytes = size;
+        return true;
+    }
+
+    // Invalidations bump the route's or the middleware directory's counter, so the sum over a
+    // route and its parent directories changes whenever anything it was built from changed.
+    private long generation(Path routeFile) {
+        long sum = 0;
+        for (Path path = routeFile; path != null; path = path.getParent()) {
+            sum += generations.getOrDefault(path, 0L);
+        }
+        return sum;
+    }
+
+    private Entry store(Lookup lookup, HttpServerExchange exchange, ByteBuffer body) {
+        if (exchange.getStatusCode() != 200) return null;
+
+        HeaderMap response = exchange.getResponseHeaders();
+        if (response.contains(Headers.SET_COOKIE)) return null;
+
+        Directives directives = Directives.parse(response.get(Headers.CACHE_CONTROL));
+        if (directives.noStore || directives.noCache || directives.isPrivate) return null;
+        if (!directives.isPublic && directives.sMaxAge < 0) return null;
+
+        long ttlSeconds = directives.sMaxAge >= 0 ? directives.sMaxAge : directives.maxAge;
+        if (ttlSeconds <= 0) return null;
+
+        List<HttpString> vary = varyHeaders(response.get(Headers.VARY));
+        if (vary == null) return null;
+        if (exchange.getRequestHeaders().contains(Headers.COOKIE) && !variesOnCookie(vary)) {
+            return null;
+        }
+        if (!vary.isEmpty()) varyByBaseKey.put(lookup.baseKey, vary);
+        String key = key(lookup.baseKey, exchange.getRequestHeaders());
+
+        ByteBuffer serialized = serialize(exchange.getStatusCode(), response, body);
+        if (serialized == null) return null;
+
+        long now = System.nanoTime();
+        long expiresAt = now + TimeUnit.SECONDS.toNanos(ttlSeconds);
+        long staleUntil = expiresAt + TimeUnit.SECONDS.toNanos(directives.staleWhileRevalidate);
+        var entry = new Entry(key, lookup.routeFile, serialized, now, expiresAt, staleUntil);
+        if (!put(entry, lookup.generation)) return null;
+        cacheableRoutes.add(lookup.routeFile);
+        return entry;
+    }
+
+    // Layout: status, header count, then (name length, name, value length, value) per
+    // header, then the encoded body.
+    private ByteBuffer serialize(int status, HeaderMap headers, ByteBuffer body) {
+        var names = new ArrayList<byte[]>();
+        var values = new ArrayList<byte[]>();
+        long size = 8L + body.remaining();
+        for (HeaderValues header : headers) {
+            String name = header.getHeaderName().toString();
+            if (SKIPPED_HEADERS.contains(name.toLowerCase())) continue;
+            byte[] nameBytes = name.getBytes(UTF_8);
+            for (String value : header) {
+                byte[] valueBytes = value.getBytes(UTF_8);
+                names.add(nameBytes);
+                values.add(valueBytes);
+                size += 8L + nameBytes.length + valueBytes.length;
+            }
+        }
+        if (size > maxEntryBytes) return null;
+
+        ByteBuffer out = ByteBuffer.allocateDirect((int) size);
+        out.putInt(status);
+        out.putInt(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            out.putInt(names.get(i).length).put(names.get(i));
+            out.putInt(values.get(i).length).put(values.get(i));
+        }
+        out.put(body.duplicate());
+        return out.flip().asReadOnlyBuffer();
+    }
+
+    private static void write(HttpServerExchange exchange, Entry entry) {
+        ByteBuffer in = entry.data.duplicate();
+        exchange.setStatusCode(in.getInt());
+        HeaderMap response = exchange.getResponseHeaders();
+        int headerCount = in.getInt();
+        String etag = null;
+        for (int i = 0; i < headerCount; i++) {
+            var name = new HttpString(readString(in));
+            String value = readString(in);
+            response.add(name, value);
+            if (name.equals(Headers.ETAG)) etag = value;
+        }
+        long ageSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - entry.storedAt);
+        response.put(Headers.AGE, Long.toString(ageSeconds));
+
+        HeaderValues ifNoneMatch = exchange.getRequestHeaders().get(Headers.IF_NONE_MATCH);
+        if (etag != null && matches(ifNoneMatch, etag)) {
+            exchange.setStatusCode(304);
+            response.remove(Headers.CONTENT_TYPE);
+            return;
+        }
+
+        exchange.setResponseContentLength(in.remaining());
+        if (exchange.getRequestMethod().equalToString("HEAD")) return;
+        exchange.getResponseSender().send(in.slice());
+    }
+
+    private static boolean matches(HeaderValues ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String header : ifNoneMatch) {
+            for (String candidate : header.split(",")) {
+                String trimmed = candidate.trim();
+                if (trimmed.startsWith("W/")) trimmed = trimmed.substring(2);
+                if (trimmed.equals("*") || trimmed.equals(opaque)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static String readString(ByteBuffer in) {
+        var bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static String baseKey(HttpServerExchange exchange) {
+        String query = exchange.getQueryString();
+        if (query == null || query.isEmpty()) return exchange.getRequestPath();
+        return exchange.getRequestPath() + '?' + query;
+    }
+
+    private String key(String baseKey, HeaderMap request) {
+        List<HttpString> vary = varyByBaseKey.get(baseKey);
+        if (vary == null) return baseKey;
+        var out = new StringBuilder(baseKey);
+        for (HttpString name : vary) {
+            out.append('\n').append(name).append(':');
+            HeaderValues values = request.get(name);
+            if (values != null) out.append(String.join(",", values));
+        }
+        return out.toString();
+    }
+
+    private static boolean variesOnCookie(List<HttpString> vary) {
+        return vary != null && vary.contains(Headers.COOKIE);
+    }
+
+    private static List<HttpString> varyHeaders(HeaderValues vary) {
+        if (vary == null) return List.of();
+        var out = new ArrayList<HttpString>();
+        for (String header : vary) {
+            for (String name : header.split(",")) {
+                String trimmed = name.trim();
+                if (trimmed.isEmpty()) continue;
+                if (trimmed.equals("*")) return null;
+                out.add(new HttpString(trimmed.toLowerCase()));
+            }
+        }
+        return List.copyOf(out);
+    }
+
+    public final class Lookup implements AutoCloseable {
+
+        private final String key;
+        private final String baseKey;
+        private final Path routeFile;
+        private final long generation;
+        private final CompletableFuture<Entry> fill;
+        private final Entry hit;
+
+        private Lookup(
+                String key,
+                String baseKey,
+                Path routeFile,
+                long generation,
+                CompletableFuture<Entry> fill,
+                Entry hit) {
+            this.key = key;
+            this.baseKey = baseKey;
+            this.routeFile = routeFile;
+            this.generation = generation;
+            this.fill = fill;
+            this.hit = hit;
+        }
+
+        public boolean isHit() {
+            return hit != null;
+        }
+
+        public void serve(HttpServerExchange exchange) {
+            if (hit == null) throw new IllegalStateException("Not a cache hit");
+            write(exchange, hit);
+        }
+
+        public void complete(HttpServerExchange exchange, ByteBuffer body) {
+            if (fill == null || fill.isDone()) return;
+            Entry entry = null;
+            try {
+                // No body means the request was answered without running the route (e.g.
+                // rate limited), which says nothing about whether the route is cacheable.
+                if (body != null) entry = store(this, exchange, body);
+                if (body != null && entry == null) cacheableRoutes.remove(routeFile);
+            } finally {
+                release(entry);
+            }
+        }
+
+        @Override
+        public void close() {
+            release(null);
+        }
+
+        private void release(Entry entry) {
+            if (fill == null || fill.isDone()) return;
+            inflight.remove(key, fill);
+            fill.complete(entry);
+        }
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final Path routeFile;
+        private final ByteBuffer data;
+        private final long storedAt;
+        private final long expiresAt;
+        private final long staleUntil;
+        private volatile long lastUsed;
+
+        Entry(
+                String key,
+                Path routeFile,
+                ByteBuffer data,
+                long storedAt,
+                long expiresAt,
+                long staleUntil) {
+            this.key = key;
+            this.routeFile = routeFile;
+            this.data = data;
+            this.storedAt = storedAt;
+            this.expiresAt = expiresAt;
+            this.staleUntil = staleUntil;
+            this.lastUsed = storedAt;
+        }
+
+        boolean isFresh(long now) {
+            return now - expiresAt < 0;
+        }
+
+        boolean isServableStale(long now) {
+            return now - staleUntil < 0;
+        }
+
+        long size() {
+            return data.capacity() + key.length() * 2L;
+        }
+    }
+
+    private static final class Directives {
+        boolean noStore;
+        boolean noCache;
+        boolean isPrivate;
+        boolean isPublic;
+        long maxAge = -1;
+        long sMaxAge = -1;
+        long staleWhileRevalidate;
+
+        static Directives parse(HeaderValues headers) {
+            var out = new Directives();
+            if (headers == null) return out;
+            for (String header : headers) {
+                for (String raw : header.split(",")) {
+                    String directive = raw.trim().toLowerCase();
+                    int eq = directive.indexOf('=');
+                    String name = eq < 0 ? directive : directive.substring(0, eq).trim();
+                    String value = eq < 0 ? null : directive.substring(eq + 1).trim();
+                    switch (name) {
+                        case "no-store" -> out.noStore = true;
+                        case "no-cache" -> out.noCache = true;
+                        case "private" -> out.isPrivate = true;
+                        case "public" -> out.isPublic = true;
+                        case "max-age" -> out.maxAge = seconds(value);
+                        case "s-maxage" -> out.sMaxAge = seconds(value);
+                        case "stale-while-revalidate" ->
+                                out.staleWhileRevalidate = Math.max(0, seconds(value));
+                        default -> {}
+                    }
+                }
+            }
+            return out;
+        }
+
+        private static long seconds(String value) {
+            if (value == null) return -1;
+            if (value.startsWith("\"") && value.endsWith("\"") && value.length() >= 2) {
+                value = value.substring(1, value.length() - 1);
+            }
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException exception) {
+                return -1;
+            }
+        }
+    }
+}
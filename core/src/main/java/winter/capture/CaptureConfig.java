@@ -0,0 +1,62 @@
+package winter.capture;
+
+import java.nio.file.Path;
+import java.util.List;
+
+public record CaptureConfig(
+        Path file,
+        double sampleRate,
+        List<String> headers,
+        int maxBodyBytes,
+        long maxFileBytes,
+        int bufferRecords) {
+    public static final double DEFAULT_SAMPLE_RATE = 0.01;
+    public static final List<String> DEFAULT_HEADERS =
+            List.of("Content-Type", "Accept", "Accept-Encoding", "If-None-Match");
+    public static final int DEFAULT_MAX_BODY_BYTES = 64 * 1024;
+    public static final long DEFAULT_MAX_FILE_BYTES = 1024L * 1024 * 1024;
+    public static final int DEFAULT_BUFFER_RECORDS = 4 * 1024;
+
+    public CaptureConfig {
+        if (file == null) throw new IllegalArgumentException("file is required");
+        if (sampleRate <= 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate must be > 0 and <= 1");
+        }
+        headers = headers == null ? List.of() : List.copyOf(headers);
+        if (maxBodyBytes < 0) throw new IllegalArgumentException("maxBodyBytes must be >= 0");
+        if (maxFileBytes < 1) throw new IllegalArgumentException("maxFileBytes must be >= 1");
+        if (bufferRecords < 1) throw new IllegalArgumentException("bufferRecords must be >= 1");
+    }
+
+    public static CaptureConfig of(Path file) {
+        return new CaptureConfig(
+                file,
+                DEFAULT_SAMPLE_RATE,
+                DEFAULT_HEADERS,
+                DEFAULT_MAX_BODY_BYTES,
+                DEFAULT_MAX_FILE_BYTES,
+                DEFAULT_BUFFER_RECORDS);
+    }
+
+    public CaptureConfig withSampleRate(double sampleRate) {
+        return new CaptureConfig(
+                file, sampleRate, headers, maxBodyBytes, maxFileBytes, bufferRecords);
+    }
+
+    // Only these request headers are stored; everything else (cookies, credentials) is left
+    // out unless listed here.
+    public CaptureConfig withHeaders(List<String> headers) {
+        return new CaptureConfig(
+                file, sampleRate, headers, maxBodyBytes, maxFileBytes, bufferRecords);
+    }
+
+    public CaptureConfig withLimits(int maxBodyBytes, long maxFileBytes) {
+        return new CaptureConfig(
+                file, sampleRate, headers, maxBodyBytes, maxFileBytes, bufferRecords);
+    }
+
+    public CaptureConfig withBuffer(int bufferRecords) {
+        return new CaptureConfig(
+                file, sampleRate, headers, maxBodyBytes, maxFileBytes, bufferRecords);
+    }
+}
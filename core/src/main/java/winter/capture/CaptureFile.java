@@ -0,0 +1,195 @@
+package winter.capture;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Capture file layout: "WCAP", a version byte and the capture's start time (epoch millis, 8
+// bytes), then one record per request. Each record is its length as a varint followed by
+// varint offset and duration (micros), status, a flags byte, method, target, header count,
+// header names and values, and the body. Strings and the body are a varint length plus bytes.
+// A record cut short by a crash ends the file instead of failing the read.
+public final class CaptureFile {
+
+    static final byte[] MAGIC = {'W', 'C', 'A', 'P'};
+    static final int VERSION = 1;
+    private static final int BODY_OMITTED = 1;
+
+    private CaptureFile() {}
+
+    static void writeHeader(OutputStream out, long startEpochMillis) throws IOException {
+        out.write(MAGIC);
+        out.write(VERSION);
+        for (int shift = 56; shift >= 0; shift -= 8) out.write((int) (startEpochMillis >>> shift));
+    }
+
+    static byte[] encode(CapturedRequest request) {
+        var payload = new Buffer(64 + request.body().length);
+        payload.varint(request.offsetMicros());
+        payload.varint(request.durationMicros());
+        payload.varint(request.status());
+        payload.write(request.bodyOmitted() ? BODY_OMITTED : 0);
+        payload.string(request.method());
+        payload.string(request.target());
+        payload.varint(request.headers().size() / 2);
+        for (String value : request.headers()) payload.string(value);
+        payload.bytes(request.body());
+
+        var record = new Buffer(payload.size() + 5);
+        record.varint(payload.size());
+        record.write(payload.array(), 0, payload.size());
+        return record.toByteArray();
+    }
+
+    public static Reader open(Path file) throws IOException {
+        var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        try {
+            byte[] magic = in.readNBytes(MAGIC.length);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a Winter capture file: " + file);
+            }
+            int version = in.read();
+            if (version != VERSION) {
+                throw new IOException("Unsupported capture version " + version + ": " + file);
+            }
+            return new Reader(in, in.readLong());
+        } catch (IOException exception) {
+            in.close();
+            throw exception;
+        }
+    }
+
+    // The writer appends records as requests complete, so a slow request lands after faster
+    // ones that arrived later. Replays need arrival order; the sort is stable for equal offsets.
+    public static List<CapturedRequest> readByOffset(Path file) throws IOException {
+        var records = new ArrayList<CapturedRequest>();
+        try (var reader = open(file)) {
+            for (var request = reader.next(); request != null; request = reader.next()) {
+                records.add(request);
+            }
+        }
+        records.sort(Comparator.comparingLong(CapturedRequest::offsetMicros));
+        return records;
+    }
+
+    public static final class Reader implements AutoCloseable {
+
+        private final DataInputStream in;
+        private final long startEpochMillis;
+
+        private Reader(DataInputStream in, long startEpochMillis) {
+            this.in = in;
+            this.startEpochMillis = startEpochMillis;
+        }
+
+        public long startEpochMillis() {
+            return startEpochMillis;
+        }
+
+        // Returns null at the end of the capture.
+        public CapturedRequest next() throws IOException {
+            byte[] record;
+            try {
+                long length = varint(in);
+                if (length < 0) return null;
+                record = new byte[Math.toIntExact(length)];
+                in.readFully(record);
+            } catch (EOFException truncated) {
+                return null;
+            }
+
+            var payload = new DataInputStream(new ByteArrayInputStream(record));
+            long offset = varint(payload);
+            long duration = varint(payload);
+            int status = (int) varint(payload);
+            int flags = payload.readUnsignedByte();
+            String method = string(payload);
+            String target = string(payload);
+            int headerCount = (int) varint(payload);
+            var headers = new ArrayList<String>(headerCount * 2);
+            for (int i = 0; i < headerCount * 2; i++) headers.add(string(payload));
+            byte[] body = bytes(payload);
+            return new CapturedRequest(
+                    offset,
+                    duration,
+                    status,
+                    method,
+                    target,
+                    headers,
+                    body,
+                    (flags & BODY_OMITTED) != 0);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        // -1 at a clean end of stream, before the first byte.
+        private static long varint(InputStream in) throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.read();
+                if (b < 0) {
+                    if (shift == 0) return -1;
+                    throw new EOFException();
+                }
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Malformed varint in capture file");
+        }
+
+        private static byte[] bytes(DataInputStream in) throws IOException {
+            long length = varint(in);
+            if (length < 0) throw new EOFException();
+            byte[] out = new byte[Math.toIntExact(length)];
+            in.readFully(out);
+            return out;
+        }
+
+        private static String string(DataInputStream in) throws IOException {
+            return new String(bytes(in), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer(int size) {
+            super(size);
+        }
+
+        void varint(long value) {
+            while ((value & ~0x7fL) != 0) {
+                write((int) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void bytes(byte[] value) {
+            varint(value.length);
+            write(value, 0, value.length);
+        }
+
+        void string(String value) {
+            bytes((value == null ? "" : value).getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
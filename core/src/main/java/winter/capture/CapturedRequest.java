@@ -0,0 +1,23 @@
+package winter.capture;
+
+import java.util.List;
+
+// One sampled request. `offsetMicros` is when it arrived relative to the start of the capture,
+// `durationMicros` and `status` are what the server answered with at the time. Headers are
+// name/value pairs; `bodyOmitted` marks requests whose body was too large or of unknown length
+// to keep.
+public record CapturedRequest(
+        long offsetMicros,
+        long durationMicros,
+        int status,
+        String method,
+        String target,
+        List<String> headers,
+        byte[] body,
+        boolean bodyOmitted) {
+
+    public CapturedRequest {
+        headers = List.copyOf(headers);
+        if (body == null) body = new byte[0];
+    }
+}
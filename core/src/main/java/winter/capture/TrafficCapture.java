@@ -0,0 +1,154 @@
+package winter.capture;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sampled request capture for replay. Request threads encode a record and hand it to a bounded
+// queue without waiting; one writer thread appends to the file. When the queue is full or the
+// file has reached maxFileBytes, records are dropped and counted.
+public final class TrafficCapture implements AutoCloseable {
+
+    private static final long IDLE_POLL_MILLIS = 2;
+
+    private final CaptureConfig config;
+    private final long startNanos = System.nanoTime();
+    private final ArrayBlockingQueue<byte[]> queue;
+    private final OutputStream out;
+    private final Thread writer;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private long bytes;
+    private volatile boolean running = true;
+
+    private TrafficCapture(CaptureConfig config, OutputStream out, long headerBytes) {
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(config.bufferRecords());
+        this.out = out;
+        this.bytes = headerBytes;
+        this.writer = Thread.ofPlatform().name("winter-capture").daemon().unstarted(this::run);
+    }
+
+    public static TrafficCapture open(CaptureConfig config) {
+        Path file = config.file();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            var out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+            CaptureFile.writeHeader(out, System.currentTimeMillis());
+            var capture = new TrafficCapture(config, out, CaptureFile.MAGIC.length + 9);
+            capture.writer.start();
+            return capture;
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to open capture file " + file, exception);
+        }
+    }
+
+    public CaptureConfig config() {
+        return config;
+    }
+
+    public boolean sample() {
+        double rate = config.sampleRate();
+        return rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    // `startNanos` is the request's System.nanoTime() arrival; headers are name/value pairs.
+    public void record(
+            long startNanos,
+            long durationNanos,
+            int status,
+            String method,
+            String target,
+            List<String> headers,
+            byte[] body,
+            boolean bodyOmitted) {
+        if (!running) return;
+        var request =
+                new CapturedRequest(
+                        TimeUnit.NANOSECONDS.toMicros(Math.max(0, startNanos - this.startNanos)),
+                        TimeUnit.NANOSECONDS.toMicros(durationNanos),
+                        status,
+                        method,
+                        target,
+                        headers,
+                        body,
+                        bodyOmitted);
+        if (!queue.offer(CaptureFile.encode(request))) dropped.increment();
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            byte[] record;
+            try {
+                record = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException exception) {
+                continue;
+            }
+            if (record == null) {
+                flush();
+                continue;
+            }
+            write(record);
+        }
+        flush();
+        try {
+            out.close();
+        } catch (IOException exception) {
+            failures.increment();
+        }
+    }
+
+    private void write(byte[] record) {
+        if (bytes + record.length > config.maxFileBytes()) {
+            dropped.increment();
+            return;
+        }
+        try {
+            out.write(record);
+            bytes += record.length;
+            written.increment();
+        } catch (IOException exception) {
+            failures.increment();
+        }
+    }
+
+    private void flush() {
+        try {
+            out.flush();
+        } catch (IOException exception) {
+            failures.increment();
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
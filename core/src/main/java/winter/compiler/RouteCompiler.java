@@ -2,15 +2,27 @@ package winter.compiler;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import winter.jfr.RouteCompileEvent;
+import winter.log.Log;
+import winter.middleware.Middleware;
+import winter.middleware.MiddlewareChain;
+import winter.router.FileRouter;
+
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticCollector;
@@ -25,13 +37,63 @@ public final class RouteCompiler {
     private record Cached(long lastModifiedMillis, RouteHandle handle) {}
 
     private final Map<Path, Cached> cache = new ConcurrentHashMap<>();
+    private final List<Consumer<Path>> invalidationListeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong chainGeneration = new AtomicLong();
+    private volatile boolean watched;
+    private final Path routesDir;
+    private final List<Middleware> globalMiddleware;
+
+    public RouteCompiler() {
+        this(null, List.of());
+    }
+
+    public RouteCompiler(Path routesDir, List<Middleware> globalMiddleware) {
+        this.routesDir = routesDir == null ? null : routesDir.toAbsolutePath().normalize();
+        this.globalMiddleware = List.copyOf(globalMiddleware);
+    }
+
+    // Global middleware followed by every `_middleware.java` from routesDir down to the
+    // route's directory. Built once per compiled route and dropped when any of those
+    // middleware files is recompiled or removed. While the watcher runs that is all it takes;
+    // without it nothing else would notice an edited, added or deleted middleware file, so
+    // the cached chain is also checked against their modification times, as load() does for
+    // the route itself.
+    public MiddlewareChain chain(Path routeFile, RouteHandle handle) {
+        RouteHandle.CachedChain existing = handle.cachedChain();
+        if (existing != null && (watched || unchanged(existing))) return existing.chain();
 
-    public RouteCompiler() {}
+        List<Path> files = existing != null ? existing.files() : middlewareFiles(routeFile);
+        long[] stamps = stamps(files);
+        long generation = chainGeneration.get();
+        MiddlewareChain built = buildChain(files);
+        if (chainGeneration.get() == generation) {
+            handle.cachedChain(new RouteHandle.CachedChain(built, files, stamps));
+        }
+        return built;
+    }
+
+    // Set by RouteWatcher while it is delivering file events.
+    public void watched(boolean watched) {
+        this.watched = watched;
+    }
+
+    public int compiledRoutes() {
+        return cache.size();
+    }
+
+    public void forEachLoaded(BiConsumer<Path, RouteHandle> action) {
+        cache.forEach((file, cached) -> action.accept(file, cached.handle));
+    }
+
+    public void onInvalidate(Consumer<Path> listener) {
+        invalidationListeners.add(listener);
+    }
 
     public void invalidate(Path routeFile) {
         if (routeFile == null) return;
         var existing = cache.remove(routeFile);
         if (existing != null) closeQuietly(existing.handle);
+        notifyInvalidated(routeFile);
     }
 
     public RouteHandle load(Path routeFile) {
@@ -49,13 +111,35 @@ public final class RouteCompiler {
                                 return existing;
 
                             RouteHandle next = compile(routeFile);
-                            if (existing != null) closeQuietly(existing.handle);
+                            if (existing != null) {
+                                closeQuietly(existing.handle);
+                                notifyInvalidated(routeFile);
+                            }
                             return new Cached(lastModified, next);
                         })
                 .handle;
     }
 
     private RouteHandle compile(Path routeFile) {
+        var event = new RouteCompileEvent();
+        event.begin();
+        boolean success = false;
+        try {
+            RouteHandle handle = compileAndLoad(routeFile);
+            success = true;
+            return handle;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.file = routeFile.toString();
+                event.success = success;
+                event.classCount = success ? countClasses(cacheDirFor(routeFile)) : 0;
+                event.commit();
+            }
+        }
+    }
+
+    private RouteHandle compileAndLoad(Path routeFile) {
         JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
         if (compiler == null) {
             throw new RuntimeException("No Java compiler found. Run with a JDK (not a JRE).");
@@ -125,11 +209,90 @@ public final class RouteCompiler {
         }
     }
 
+    private List<Path> middlewareFiles(Path routeFile) {
+        if (routesDir == null || !routeFile.startsWith(routesDir)) return List.of();
+
+        var files = new ArrayList<Path>();
+        for (Path dir = routeFile.getParent();
+                dir != null && dir.startsWith(routesDir);
+                dir = dir.getParent()) {
+            Path file = dir.resolve(FileRouter.MIDDLEWARE_FILE);
+            if (!file.equals(routeFile)) files.add(file);
+        }
+        Collections.reverse(files);
+        return List.copyOf(files);
+    }
+
+    // File.lastModified answers 0 for a missing file instead of throwing, which keeps the
+    // common case (no middleware at most levels) cheap.
+    private static long[] stamps(List<Path> files) {
+        long[] out = new long[files.size()];
+        for (int i = 0; i < out.length; i++) out[i] = files.get(i).toFile().lastModified();
+        return out;
+    }
+
+    private static boolean unchanged(RouteHandle.CachedChain cached) {
+        List<Path> files = cached.files();
+        long[] stamps = cached.stamps();
+        for (int i = 0; i < stamps.length; i++) {
+            if (files.get(i).toFile().lastModified() != stamps[i]) return false;
+        }
+        return true;
+    }
+
+    private MiddlewareChain buildChain(List<Path> files) {
+        var out = new ArrayList<>(globalMiddleware);
+        for (Path file : files) {
+            if (!Files.isRegularFile(file)) continue;
+            try {
+                out.add(load(file).middleware());
+            } catch (RuntimeException exception) {
+                throw exception;
+            } catch (Exception exception) {
+                throw new RuntimeException("Failed to load middleware: " + file, exception);
+            }
+        }
+        return MiddlewareChain.of(out);
+    }
+
+    private void resetChainsUnder(Path dir) {
+        chainGeneration.incrementAndGet();
+        for (var entry : cache.entrySet()) {
+            if (entry.getKey().startsWith(dir)) entry.getValue().handle.cachedChain(null);
+        }
+    }
+
+    private void notifyInvalidated(Path routeFile) {
+        if (FileRouter.isMiddlewareFile(routeFile) && routeFile.getParent() != null) {
+            resetChainsUnder(routeFile.getParent());
+        }
+        for (Consumer<Path> listener : invalidationListeners) {
+            try {
+                listener.accept(routeFile);
+            } catch (Exception exception) {
+                Log.warn(
+                        "Route invalidation listener failed for "
+                                + routeFile
+                                + " ("
+                                + exception.getMessage()
+                                + ")");
+            }
+        }
+    }
+
     private static void closeQuietly(RouteHandle handle) {
         try {
             handle.close();
         } catch (Exception exception) {
-            System.err.println("Failed to close route classloader: " + exception.getMessage());
+            Log.warn("Failed to close route classloader: " + exception.getMessage());
+        }
+    }
+
+    private static int countClasses(Path outputDir) {
+        try (var files = Files.list(outputDir)) {
+            return (int) files.filter(file -> file.toString().endsWith(".class")).count();
+        } catch (Exception ignored) {
+            return 0;
         }
     }
 
@@ -1,22 +1,92 @@
 package winter.compiler;
 
 import winter.Ctx;
+import winter.deadline.Timeout;
+import winter.limit.RateLimit;
+import winter.limit.RateLimited;
+import winter.limit.RateLimiter;
+import winter.middleware.Middleware;
+import winter.middleware.MiddlewareChain;
+import winter.resilience.Breaker;
+import winter.resilience.CircuitBreaker;
+import winter.resilience.Isolated;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URLClassLoader;
+import java.nio.file.Path;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public final class RouteHandle implements AutoCloseable {
 
+    // files are the _middleware.java paths the chain was resolved from, root first, and stamps
+    // their modification times (0 if absent).
+    record CachedChain(MiddlewareChain chain, List<Path> files, long[] stamps) {}
+
     private final Class<?> routeClass;
     private final URLClassLoader classLoader;
+    private final RateLimiter rateLimiter;
+    private final long timeoutNanos;
+    private final CircuitBreaker circuitBreaker;
+    private final String bulkhead;
+    private volatile Middleware middleware;
+    private volatile CachedChain chain;
 
     RouteHandle(Class<?> routeClass, URLClassLoader classLoader) {
         this.routeClass = routeClass;
         this.classLoader = classLoader;
+        RateLimited limited = routeClass.getAnnotation(RateLimited.class);
+        this.rateLimiter = limited == null ? null : new RateLimiter(RateLimit.of(limited));
+        Timeout timeout = routeClass.getAnnotation(Timeout.class);
+        this.timeoutNanos = timeout == null ? 0 : TimeUnit.MILLISECONDS.toNanos(timeout.millis());
+        Breaker breaker = routeClass.getAnnotation(Breaker.class);
+        this.circuitBreaker = breaker == null ? null : new CircuitBreaker(breaker);
+        Isolated isolated = routeClass.getAnnotation(Isolated.class);
+        this.bulkhead = isolated == null ? null : isolated.value();
+    }
+
+    public String bulkhead() {
+        return bulkhead;
+    }
+
+    public CircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public long timeoutNanos() {
+        return timeoutNanos;
+    }
+
+    public RateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    public MiddlewareChain chain() {
+        CachedChain cached = chain;
+        return cached == null ? null : cached.chain();
+    }
+
+    CachedChain cachedChain() {
+        return chain;
+    }
+
+    void cachedChain(CachedChain chain) {
+        this.chain = chain;
+    }
+
+    Middleware middleware() throws Exception {
+        Middleware existing = middleware;
+        if (existing != null) return existing;
+        if (!Middleware.class.isAssignableFrom(routeClass)) {
+            throw new IllegalStateException(
+                    "Middleware file must declare `public class Route implements Middleware`");
+        }
+        middleware = (Middleware) routeClass.getDeclaredConstructor().newInstance();
+        return middleware;
     }
 
     public Set<String> allowedMethods() {
@@ -0,0 +1,224 @@
+package winter.deadline;
+
+import winter.log.Log;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+// Hierarchical timing wheel: four levels of 64 slots, so scheduling and cancelling are O(1)
+// and one thread serves every timer. Callers only touch lock-free queues and a flag; the
+// slots (doubly-linked lists) belong to the ticker thread, which unlinks cancelled timers on
+// its next pass instead of carrying them until their deadline.
+public final class TimingWheel implements AutoCloseable {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickNanos;
+    private final long origin = System.nanoTime();
+    private final ConcurrentLinkedQueue<Timer> pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Timer> cancelled = new ConcurrentLinkedQueue<>();
+    private final Slot[][] wheels = new Slot[LEVELS][SLOTS];
+    private final Thread ticker;
+    private volatile boolean idle;
+    private volatile boolean closed;
+    private volatile int armed;
+    private long currentTick;
+    private int scheduled;
+
+    public TimingWheel(Duration tick, String threadName) {
+        this.tickNanos = Math.max(1, tick.toNanos());
+        for (var level : wheels) {
+            for (int i = 0; i < SLOTS; i++) level[i] = new Slot();
+        }
+        this.ticker = Thread.ofPlatform().name(threadName).daemon().unstarted(this::run);
+        ticker.start();
+    }
+
+    public Timer schedule(long deadlineNanos, Runnable task) {
+        var timer = new Timer(this, deadlineNanos, task);
+        pending.add(timer);
+        if (idle) LockSupport.unpark(ticker);
+        return timer;
+    }
+
+    // Timers placed in the wheel, as of the ticker's last pass.
+    int armed() {
+        return armed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(ticker);
+    }
+
+    private void run() {
+        while (!closed) {
+            drainPending();
+            drainCancelled();
+            armed = scheduled;
+            if (scheduled == 0) {
+                // Nothing armed: sleep until schedule() wakes us instead of ticking idle.
+                idle = true;
+                if (pending.isEmpty() && !closed) LockSupport.park(this);
+                idle = false;
+                currentTick = Math.max(currentTick, elapsedTicks());
+                continue;
+            }
+
+            long next = origin + (currentTick + 1) * tickNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+
+            long target = elapsedTicks();
+            while (currentTick < target) {
+                currentTick++;
+                advance();
+            }
+        }
+    }
+
+    private long elapsedTicks() {
+        return (System.nanoTime() - origin) / tickNanos;
+    }
+
+    private void drainPending() {
+        Timer timer;
+        while ((timer = pending.poll()) != null) {
+            if (timer.isCancelled()) continue;
+            long ticks = Math.ceilDiv(timer.deadlineNanos - origin, tickNanos);
+            timer.expiryTick = Math.max(ticks, currentTick + 1);
+            place(timer);
+            scheduled++;
+        }
+    }
+
+    private void drainCancelled() {
+        Timer timer;
+        while ((timer = cancelled.poll()) != null) {
+            // Not placed yet (still pending, so skipped there) or already taken off a slot.
+            if (timer.slot == null) continue;
+            timer.slot.remove(timer);
+            scheduled--;
+        }
+    }
+
+    private void place(Timer timer) {
+        long delta = Math.min(timer.expiryTick - currentTick, MAX_DELTA);
+        long at = currentTick + delta;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) level++;
+        wheels[level][(int) (at >>> (SLOT_BITS * level)) & MASK].add(timer);
+    }
+
+    private void advance() {
+        // Move timers down from each coarser level whose slot boundary we just crossed.
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) continue;
+            var slot = wheels[level][(int) (currentTick >>> (SLOT_BITS * level)) & MASK];
+            for (Timer timer = slot.detach(), next; timer != null; timer = next) {
+                next = timer.unlink();
+                if (timer.isCancelled()) scheduled--;
+                else place(timer);
+            }
+        }
+
+        for (Timer timer = wheels[0][(int) currentTick & MASK].detach(), next;
+                timer != null;
+                timer = next) {
+            next = timer.unlink();
+            if (!timer.isCancelled() && timer.expiryTick > currentTick) {
+                place(timer);
+                continue;
+            }
+            scheduled--;
+            if (timer.fire()) {
+                try {
+                    timer.task.run();
+                } catch (RuntimeException exception) {
+                    Log.error("Timer task failed", exception);
+                }
+            }
+        }
+    }
+
+    // Intrusive list owned by the ticker thread.
+    private static final class Slot {
+        private Timer head;
+        private Timer tail;
+
+        void add(Timer timer) {
+            timer.slot = this;
+            timer.prev = tail;
+            if (tail == null) head = timer;
+            else tail.next = timer;
+            tail = timer;
+        }
+
+        void remove(Timer timer) {
+            if (timer.prev == null) head = timer.next;
+            else timer.prev.next = timer.next;
+            if (timer.next == null) tail = timer.prev;
+            else timer.next.prev = timer.prev;
+            timer.unlink();
+        }
+
+        // Empties the slot and returns its first timer; walk the rest with Timer.unlink().
+        Timer detach() {
+            Timer first = head;
+            head = null;
+            tail = null;
+            return first;
+        }
+    }
+
+    public static final class Timer {
+
+        private final TimingWheel wheel;
+        private final long deadlineNanos;
+        private final Runnable task;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private long expiryTick;
+        private Slot slot;
+        private Timer prev;
+        private Timer next;
+
+        private Timer(TimingWheel wheel, long deadlineNanos, Runnable task) {
+            this.wheel = wheel;
+            this.deadlineNanos = deadlineNanos;
+            this.task = task;
+        }
+
+        public boolean cancel() {
+            if (!done.compareAndSet(false, true)) return false;
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return done.get();
+        }
+
+        private boolean fire() {
+            return done.compareAndSet(false, true);
+        }
+
+        // Clears the links and returns the old next timer.
+        private Timer unlink() {
+            Timer following = next;
+            slot = null;
+            prev = null;
+            next = null;
+            return following;
+        }
+    }
+}
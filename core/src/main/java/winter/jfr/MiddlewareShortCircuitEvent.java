@@ -0,0 +1,27 @@
+package winter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Instant event, so it costs nothing unless a middleware actually answers the request.
+@Name("winter.MiddlewareShortCircuit")
+@Label("Middleware Short-Circuit")
+@Category("Winter")
+@Description("A middleware returned a response from before() instead of calling the route")
+@StackTrace(false)
+public final class MiddlewareShortCircuitEvent extends Event {
+
+    @Label("Middleware")
+    public String middleware;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Status")
+    @Description("Status of the returned Res, or 0 for any other result")
+    public int status;
+}
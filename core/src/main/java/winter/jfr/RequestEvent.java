@@ -0,0 +1,54 @@
+package winter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+// Spans a request from the moment Winter sees it until the exchange completes. Only requests
+// over the threshold are written; raise it with e.g.
+// -XX:StartFlightRecording:winter.Request#threshold=100ms.
+@Name("winter.Request")
+@Label("Request")
+@Category("Winter")
+@Description("An HTTP request handled by Winter, with its phase breakdown")
+@StackTrace(false)
+@Threshold("10 ms")
+public final class RequestEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Route File")
+    public String route;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Match")
+    @Timespan
+    public long match;
+
+    @Label("Load")
+    @Timespan
+    public long load;
+
+    @Label("Middleware")
+    @Timespan
+    public long middleware;
+
+    @Label("Handler")
+    @Timespan
+    public long handler;
+
+    @Label("Serialize")
+    @Timespan
+    public long serialize;
+}
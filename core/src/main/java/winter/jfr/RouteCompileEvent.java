@@ -0,0 +1,28 @@
+package winter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("winter.RouteCompile")
+@Label("Route Compile")
+@Category("Winter")
+@Description("A route or middleware file compiled and loaded by RouteCompiler")
+@StackTrace(false)
+@Threshold("0 ms")
+public final class RouteCompileEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Success")
+    public boolean success;
+
+    @Label("Class Count")
+    @Description("Classes written by javac, including nested and anonymous ones")
+    public int classCount;
+}
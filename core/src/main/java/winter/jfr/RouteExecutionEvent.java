@@ -0,0 +1,23 @@
+package winter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Marks the thread and interval a route handler ran on. Off by default; the profiler turns
+// it on to attribute execution samples to route files.
+@Name("winter.RouteExecution")
+@Label("Route Execution")
+@Category("Winter")
+@Description("A route handler running on the recorded thread")
+@StackTrace(false)
+@Enabled(false)
+public final class RouteExecutionEvent extends Event {
+
+    @Label("Route File")
+    public String route;
+}
@@ -0,0 +1,28 @@
+package winter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("winter.RouteReload")
+@Label("Route Reload")
+@Category("Winter")
+@Description("A file change picked up by the hot-reload watcher")
+@StackTrace(false)
+@Threshold("0 ms")
+public final class RouteReloadEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Change")
+    @Description("modify, create or delete")
+    public String change;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,56 @@
+package winter.limit;
+
+import java.util.List;
+
+public record ConcurrencyConfig(
+        int initialLimit,
+        int minLimit,
+        int maxLimit,
+        double rttTolerance,
+        List<String> criticalPaths,
+        List<String> lowPriorityPaths) {
+    public static final int DEFAULT_INITIAL_LIMIT = 64;
+    public static final int DEFAULT_MIN_LIMIT = 8;
+    public static final int DEFAULT_MAX_LIMIT = 1024;
+    public static final double DEFAULT_RTT_TOLERANCE = 2.0;
+
+    public ConcurrencyConfig {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Expected 1 <= minLimit <= maxLimit");
+        }
+        if (rttTolerance < 1.0) throw new IllegalArgumentException("rttTolerance must be >= 1");
+        initialLimit = Math.clamp(initialLimit, minLimit, maxLimit);
+        criticalPaths = List.copyOf(criticalPaths);
+        lowPriorityPaths = List.copyOf(lowPriorityPaths);
+    }
+
+    public static ConcurrencyConfig defaults() {
+        return new ConcurrencyConfig(
+                DEFAULT_INITIAL_LIMIT,
+                DEFAULT_MIN_LIMIT,
+                DEFAULT_MAX_LIMIT,
+                DEFAULT_RTT_TOLERANCE,
+                List.of("/health", "/ready"),
+                List.of());
+    }
+
+    public ConcurrencyConfig withLimits(int initialLimit, int minLimit, int maxLimit) {
+        return new ConcurrencyConfig(
+                initialLimit, minLimit, maxLimit, rttTolerance, criticalPaths, lowPriorityPaths);
+    }
+
+    public ConcurrencyConfig withRttTolerance(double rttTolerance) {
+        return new ConcurrencyConfig(
+                initialLimit, minLimit, maxLimit, rttTolerance, criticalPaths, lowPriorityPaths);
+    }
+
+    public ConcurrencyConfig withCriticalPaths(List<String> criticalPaths) {
+        return new ConcurrencyConfig(
+                initialLimit, minLimit, maxLimit, rttTolerance, criticalPaths, lowPriorityPaths);
+    }
+
+    public ConcurrencyConfig withLowPriorityPaths(List<String> lowPriorityPaths) {
+        return new ConcurrencyConfig(
+                initialLimit, minLimit, maxLimit, rttTolerance, criticalPaths, lowPriorityPaths);
+    }
+}
@@ -0,0 +1,131 @@
+package winter.limit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ConcurrencyLimiter {
+
+    public enum Lane {
+        CRITICAL,
+        NORMAL,
+        LOW
+    }
+
+    private static final long WINDOW_NANOS = 100_000_000L;
+    private static final int MIN_WINDOW_SAMPLES = 16;
+    private static final double LOW_PRIORITY_SHARE = 0.75;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final ConcurrencyConfig config;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final LongAdder windowRttNanos = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private final LongAdder[] shed = new LongAdder[Lane.values().length];
+    private volatile double limit;
+    private volatile boolean saturated;
+    private volatile long windowStart = System.nanoTime();
+    private long noLoadRttNanos = Long.MAX_VALUE;
+
+    public ConcurrencyLimiter(ConcurrencyConfig config) {
+        this.config = config;
+        this.limit = config.initialLimit();
+        for (int i = 0; i < shed.length; i++) shed[i] = new LongAdder();
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    public long shed() {
+        long total = 0;
+        for (LongAdder counter : shed) total += counter.sum();
+        return total;
+    }
+
+    public long shed(Lane lane) {
+        return shed[lane.ordinal()].sum();
+    }
+
+    public Lane lane(String path) {
+        if (matches(config.criticalPaths(), path)) return Lane.CRITICAL;
+        if (matches(config.lowPriorityPaths(), path)) return Lane.LOW;
+        return Lane.NORMAL;
+    }
+
+    // Critical requests are never shed and are left out of the latency samples, so health
+    // checks keep answering while the limit is clamped down.
+    public boolean tryAcquire(Lane lane) {
+        if (lane == Lane.CRITICAL) return true;
+
+        double current = limit;
+        int cap = Math.max(1, (int) (lane == Lane.LOW ? current * LOW_PRIORITY_SHARE : current));
+        while (true) {
+            int active = inflight.get();
+            if (active >= cap) {
+                shed[lane.ordinal()].increment();
+                return false;
+            }
+            if (inflight.compareAndSet(active, active + 1)) {
+                if (!saturated && active + 1 >= current / 2) saturated = true;
+                return true;
+            }
+        }
+    }
+
+    public void release(Lane lane, long rttNanos) {
+        if (lane == Lane.CRITICAL) return;
+        inflight.decrementAndGet();
+        windowRttNanos.add(rttNanos);
+        windowSamples.increment();
+
+        long now = System.nanoTime();
+        if (now - windowStart < WINDOW_NANOS || windowSamples.sum() < MIN_WINDOW_SAMPLES) return;
+        if (!updating.compareAndSet(false, true)) return;
+        try {
+            update(now);
+        } finally {
+            updating.set(false);
+        }
+    }
+
+    // Gradient update once per window: shrink in proportion to how far the window's mean
+    // latency has drifted above the no-load baseline, grow by sqrt(limit) only when demand
+    // actually reached the limit.
+    private void update(long now) {
+        long samples = windowSamples.sumThenReset();
+        long total = windowRttNanos.sumThenReset();
+        windowStart = now;
+        if (samples == 0) return;
+
+        long rtt = Math.max(1, total / samples);
+        if (rtt < noLoadRttNanos) noLoadRttNanos = rtt;
+        else noLoadRttNanos += (rtt - noLoadRttNanos) / 64;
+
+        double current = limit;
+        double gradient =
+                Math.clamp(noLoadRttNanos * config.rttTolerance() / rtt, MIN_GRADIENT, 1.0);
+        double next = current;
+        if (gradient < 1.0) next = current * gradient;
+        else if (saturated) next = current + Math.sqrt(current);
+
+        limit = Math.clamp(next, config.minLimit(), config.maxLimit());
+        saturated = false;
+    }
+
+    private static boolean matches(List<String> prefixes, String path) {
+        for (String prefix : prefixes) {
+            if (!path.startsWith(prefix)) continue;
+            if (path.length() == prefix.length()
+                    || prefix.endsWith("/")
+                    || path.charAt(prefix.length()) == '/') return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,65 @@
+package winter.limit;
+
+public record RateLimit(
+        String pathPrefix,
+        double permitsPerSecond,
+        int burst,
+        Key key,
+        String keyName,
+        int maxKeys) {
+    public static final int DEFAULT_MAX_KEYS = 100_000;
+
+    public enum Key {
+        CLIENT_IP,
+        HEADER,
+        COOKIE
+    }
+
+    public RateLimit {
+        if (!(permitsPerSecond > 0)) throw new IllegalArgumentException("permitsPerSecond <= 0");
+        if (key != Key.CLIENT_IP && (keyName == null || keyName.isEmpty())) {
+            throw new IllegalArgumentException("keyName is required for " + key);
+        }
+        if (burst < 1) burst = Math.max(1, (int) Math.ceil(permitsPerSecond));
+        if (maxKeys < 1) maxKeys = DEFAULT_MAX_KEYS;
+    }
+
+    public static RateLimit perClientIp(String pathPrefix, double permitsPerSecond, int burst) {
+        return new RateLimit(
+                pathPrefix, permitsPerSecond, burst, Key.CLIENT_IP, null, DEFAULT_MAX_KEYS);
+    }
+
+    public static RateLimit perHeader(
+            String pathPrefix, String header, double permitsPerSecond, int burst) {
+        return new RateLimit(
+                pathPrefix, permitsPerSecond, burst, Key.HEADER, header, DEFAULT_MAX_KEYS);
+    }
+
+    public static RateLimit perCookie(
+            String pathPrefix, String cookie, double permitsPerSecond, int burst) {
+        return new RateLimit(
+                pathPrefix, permitsPerSecond, burst, Key.COOKIE, cookie, DEFAULT_MAX_KEYS);
+    }
+
+    public static RateLimit of(RateLimited annotation) {
+        return new RateLimit(
+                null,
+                annotation.perSecond(),
+                annotation.burst(),
+                annotation.key(),
+                annotation.keyName().isEmpty() ? null : annotation.keyName(),
+                annotation.maxKeys());
+    }
+
+    public RateLimit withMaxKeys(int maxKeys) {
+        return new RateLimit(pathPrefix, permitsPerSecond, burst, key, keyName, maxKeys);
+    }
+
+    public boolean matches(String path) {
+        if (pathPrefix == null) return true;
+        if (!path.startsWith(pathPrefix)) return false;
+        return path.length() == pathPrefix.length()
+                || pathPrefix.endsWith("/")
+                || path.charAt(pathPrefix.length()) == '/';
+    }
+}
@@ -0,0 +1,20 @@
+package winter.limit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface RateLimited {
+    double perSecond();
+
+    int burst() default 0;
+
+    RateLimit.Key key() default RateLimit.Key.CLIENT_IP;
+
+    String keyName() default "";
+
+    int maxKeys() default RateLimit.DEFAULT_MAX_KEYS;
+}
@@ -0,0 +1,105 @@
+package winter.limit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class RateLimiter {
+
+    private static final int STRIPES = 64;
+    private static final long UNUSED = Long.MIN_VALUE;
+
+    private final RateLimit rule;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int keysPerStripe;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimiter(RateLimit rule) {
+        this.rule = rule;
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / rule.permitsPerSecond()));
+        this.burstNanos = intervalNanos * rule.burst();
+        this.keysPerStripe = Math.max(1, rule.maxKeys() / STRIPES);
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    public RateLimit rule() {
+        return rule;
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public int trackedKeys() {
+        int total = 0;
+        for (Stripe stripe : stripes) total += stripe.buckets.size();
+        return total;
+    }
+
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    // Each bucket is a single "theoretical arrival time" (GCRA), so taking a token is one
+    // CAS with no lock. Returns 0 when admitted, otherwise the nanos until the next token.
+    public long tryAcquire(String key, long now) {
+        AtomicLong bucket = bucket(key, now);
+        while (true) {
+            long tat = bucket.get();
+            long next = (tat == UNUSED || tat < now ? now : tat) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, next)) return 0;
+        }
+    }
+
+    private AtomicLong bucket(String key, long now) {
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+        AtomicLong bucket = stripe.buckets.get(key);
+        if (bucket != null) return bucket;
+
+        if (stripe.buckets.size() >= keysPerStripe) {
+            stripe.evictIdle(now, intervalNanos);
+            // Still full of active keys: new keys share one bucket rather than growing the map.
+            if (stripe.buckets.size() >= keysPerStripe) return stripe.overflow;
+        }
+        return stripe.buckets.computeIfAbsent(key, ignored -> new AtomicLong(UNUSED));
+    }
+
+    private static final class Stripe {
+
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflow = new AtomicLong(UNUSED);
+        private final AtomicBoolean evicting = new AtomicBoolean();
+        private final AtomicLong nextEviction = new AtomicLong(Long.MIN_VALUE);
+
+        // A bucket whose arrival time has passed is full again, which is the same as having
+        // no bucket, so dropping it loses nothing. Nothing can be dropped before the earliest
+        // remaining arrival time, so the next scan waits for it (and at least one emission
+        // interval): a flood of new keys against a stripe of active ones is not a scan each.
+        void evictIdle(long now, long intervalNanos) {
+            if (now < nextEviction.get()) return;
+            if (!evicting.compareAndSet(false, true)) return;
+            try {
+                long earliest = Long.MAX_VALUE;
+                var iterator = buckets.values().iterator();
+                while (iterator.hasNext()) {
+                    long tat = iterator.next().get();
+                    if (tat <= now) iterator.remove();
+                    else earliest = Math.min(earliest, tat);
+                }
+                long next = now + intervalNanos;
+                nextEviction.set(earliest != Long.MAX_VALUE && earliest > next ? earliest : next);
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+}
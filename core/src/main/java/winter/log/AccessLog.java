@@ -0,0 +1,249 @@
+package winter.log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// JSON-lines access log. Request threads encode into a preallocated ring and return; a single
+// writer thread copies whole batches into memory-mapped files. A slow disk only ever backs up
+// the ring, and once it is full new records are dropped and counted.
+public final class AccessLog implements AutoCloseable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final AccessLogConfig config;
+    private final LogRing ring;
+    private final MappedLogFiles files;
+    private final Thread writer;
+    private final LogRing.Sink sink = this::write;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile boolean running = true;
+
+    private AccessLog(AccessLogConfig config, MappedLogFiles files) {
+        this.config = config;
+        this.ring = new LogRing(config.bufferRecords(), config.maxRecordBytes());
+        this.files = files;
+        this.writer = Thread.ofPlatform().name("winter-access-log").daemon().unstarted(this::run);
+    }
+
+    public static AccessLog open(AccessLogConfig config) {
+        try {
+            var files = new MappedLogFiles(config.dir(), config.maxFileBytes(), config.maxFiles());
+            var log = new AccessLog(config, files);
+            log.writer.start();
+            return log;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(
+                    "Failed to open access log in " + config.dir(), exception);
+        }
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    public long dropped() {
+        return ring.dropped();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    // Server errors are always kept; everything else is subject to sampleRate.
+    public void request(
+            String method,
+            String path,
+            String route,
+            String client,
+            int status,
+            long nanos,
+            long bytes) {
+        double rate = config.sampleRate();
+        if (status < 500 && rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate) return;
+        long seq = ring.claim();
+        if (seq < 0) return;
+
+        var out = new Encoder(ring.data(), ring.offset(seq), ring.recordBytes(), "access");
+        out.field("method").string(method);
+        out.field("path").string(path);
+        out.field("route").string(route);
+        out.field("status").number(status);
+        out.field("us").number(TimeUnit.NANOSECONDS.toMicros(nanos));
+        out.field("bytes").number(bytes);
+        out.field("client").string(client);
+        ring.publish(seq, out.finish());
+    }
+
+    // Returns false when the record was dropped.
+    public boolean message(String level, String message) {
+        long seq = ring.claim();
+        if (seq < 0) return false;
+
+        var out = new Encoder(ring.data(), ring.offset(seq), ring.recordBytes(), "log");
+        out.field("level").string(level);
+        out.field("msg").string(message);
+        ring.publish(seq, out.finish());
+        return true;
+    }
+
+    private void run() {
+        while (running) {
+            if (ring.drain(sink) == 0) LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        ring.drain(sink);
+        try {
+            files.close();
+        } catch (IOException exception) {
+            failures.increment();
+        }
+    }
+
+    private void write(byte[] data, int offset, int length) {
+        try {
+            files.write(data, offset, length);
+            written.increment();
+        } catch (IOException exception) {
+            // Nothing else to log to; count it and keep draining so producers never stall.
+            failures.increment();
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writes one JSON line into a ring slot. A string that does not fit is cut short and any
+    // field after it is left out, closing the record with "truncated":true so every line
+    // still parses.
+    private static final class Encoder {
+
+        private static final byte[] TRUNCATED =
+                ",\"truncated\":true}\n".getBytes(StandardCharsets.US_ASCII);
+
+        private final byte[] buf;
+        private final int start;
+        private final int limit;
+        private int pos;
+        private int fieldStart;
+        private boolean truncated;
+
+        // maxRecordBytes is at least 128, so the timestamp and type always fit.
+        Encoder(byte[] buf, int start, int capacity, String type) {
+            this.buf = buf;
+            this.start = start;
+            this.limit = start + capacity - TRUNCATED.length;
+            this.pos = start;
+            raw("{\"ts\":");
+            raw(Long.toString(System.currentTimeMillis()));
+            raw(",\"type\":\"");
+            raw(type);
+            raw("\"");
+        }
+
+        Encoder field(String name) {
+            if (truncated) return this;
+            fieldStart = pos;
+            if (!raw(",\"") || !raw(name) || !raw("\":")) cut();
+            return this;
+        }
+
+        Encoder number(long value) {
+            if (!truncated && !raw(Long.toString(value))) cut();
+            return this;
+        }
+
+        Encoder string(String value) {
+            if (truncated) return this;
+            if (value == null) {
+                if (!raw("null")) cut();
+                return this;
+            }
+            if (pos + 2 > limit) {
+                cut();
+                return this;
+            }
+            buf[pos++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                int mark = pos;
+                if (!put(value.charAt(i))) {
+                    pos = mark;
+                    truncated = true;
+                    break;
+                }
+            }
+            buf[pos++] = '"';
+            return this;
+        }
+
+        int finish() {
+            if (truncated) {
+                System.arraycopy(TRUNCATED, 0, buf, pos, TRUNCATED.length);
+                pos += TRUNCATED.length;
+            } else {
+                buf[pos++] = '}';
+                buf[pos++] = '\n';
+            }
+            return pos - start;
+        }
+
+        // Drops the partially written field.
+        private void cut() {
+            pos = fieldStart;
+            truncated = true;
+        }
+
+        private boolean raw(String ascii) {
+            if (pos + ascii.length() > limit) return false;
+            for (int i = 0; i < ascii.length(); i++) buf[pos++] = (byte) ascii.charAt(i);
+            return true;
+        }
+
+        // Leaves room for the closing quote.
+        private boolean put(char c) {
+            int room = limit - 1 - pos;
+            if (c == '"' || c == '\\') {
+                if (room < 2) return false;
+                buf[pos++] = '\\';
+                buf[pos++] = (byte) c;
+            } else if (c < 0x20) {
+                if (room < 6) return false;
+                buf[pos++] = '\\';
+                buf[pos++] = 'u';
+                buf[pos++] = '0';
+                buf[pos++] = '0';
+                buf[pos++] = (byte) Character.forDigit(c >> 4, 16);
+                buf[pos++] = (byte) Character.forDigit(c & 0xF, 16);
+            } else if (c < 0x80) {
+                if (room < 1) return false;
+                buf[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                if (room < 2) return false;
+                buf[pos++] = (byte) (0xC0 | c >> 6);
+                buf[pos++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Surrogates are replaced rather than re-assembled into 4-byte sequences.
+                if (room < 1) return false;
+                buf[pos++] = '?';
+            } else {
+                if (room < 3) return false;
+                buf[pos++] = (byte) (0xE0 | c >> 12);
+                buf[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buf[pos++] = (byte) (0x80 | c & 0x3F);
+            }
+            return true;
+        }
+    }
+}
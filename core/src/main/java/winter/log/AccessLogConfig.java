@@ -0,0 +1,57 @@
+package winter.log;
+
+import java.nio.file.Path;
+
+public record AccessLogConfig(
+        Path dir,
+        long maxFileBytes,
+        int maxFiles,
+        double sampleRate,
+        int bufferRecords,
+        int maxRecordBytes) {
+    public static final long DEFAULT_MAX_FILE_BYTES = 64L * 1024 * 1024;
+    public static final int DEFAULT_MAX_FILES = 10;
+    public static final int DEFAULT_BUFFER_RECORDS = 16 * 1024;
+    public static final int DEFAULT_MAX_RECORD_BYTES = 1024;
+
+    public AccessLogConfig {
+        if (dir == null) throw new IllegalArgumentException("dir is required");
+        if (maxRecordBytes < 128) {
+            throw new IllegalArgumentException("maxRecordBytes must be >= 128");
+        }
+        if (maxFileBytes < maxRecordBytes || maxFileBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "maxFileBytes must be between maxRecordBytes and 2 GiB");
+        }
+        if (maxFiles < 1) throw new IllegalArgumentException("maxFiles must be >= 1");
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate must be between 0 and 1");
+        }
+        if (bufferRecords < 1) throw new IllegalArgumentException("bufferRecords must be >= 1");
+    }
+
+    public static AccessLogConfig of(Path dir) {
+        return new AccessLogConfig(
+                dir,
+                DEFAULT_MAX_FILE_BYTES,
+                DEFAULT_MAX_FILES,
+                1.0,
+                DEFAULT_BUFFER_RECORDS,
+                DEFAULT_MAX_RECORD_BYTES);
+    }
+
+    public AccessLogConfig withRotation(long maxFileBytes, int maxFiles) {
+        return new AccessLogConfig(
+                dir, maxFileBytes, maxFiles, sampleRate, bufferRecords, maxRecordBytes);
+    }
+
+    public AccessLogConfig withSampleRate(double sampleRate) {
+        return new AccessLogConfig(
+                dir, maxFileBytes, maxFiles, sampleRate, bufferRecords, maxRecordBytes);
+    }
+
+    public AccessLogConfig withBuffer(int bufferRecords, int maxRecordBytes) {
+        return new AccessLogConfig(
+                dir, maxFileBytes, maxFiles, sampleRate, bufferRecords, maxRecordBytes);
+    }
+}
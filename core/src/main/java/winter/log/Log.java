@@ -0,0 +1,40 @@
+package winter.log;
+
+// Framework diagnostics. They go to the access log while one is installed (so they never
+// contend on System.err) and to System.err otherwise, or when the log's ring is full. Stack
+// traces do not fit a fixed-size ring slot, so they always go to System.err in full and the
+// access log gets a one-line summary.
+public final class Log {
+
+    private static volatile AccessLog target;
+
+    private Log() {}
+
+    public static void install(AccessLog log) {
+        target = log;
+    }
+
+    public static void uninstall(AccessLog log) {
+        if (target == log) target = null;
+    }
+
+    public static void info(String message) {
+        write("info", message);
+    }
+
+    public static void warn(String message) {
+        write("warn", message);
+    }
+
+    public static void error(String message, Throwable throwable) {
+        AccessLog log = target;
+        if (log != null) log.message("error", message + " (" + throwable + ", trace on stderr)");
+        System.err.println(message);
+        throwable.printStackTrace(System.err);
+    }
+
+    private static void write(String level, String message) {
+        AccessLog log = target;
+        if (log == null || !log.message(level, message)) System.err.println(message);
+    }
+}
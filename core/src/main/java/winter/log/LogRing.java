@@ -0,0 +1,83 @@
+package winter.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Multi-producer, single-consumer ring of fixed-size record slots in one preallocated array.
+// Producers claim a sequence, encode straight into its slot and publish it; when the consumer
+// is a full ring behind, the record is dropped instead of waiting.
+final class LogRing {
+
+    private final byte[] data;
+    private final int[] lengths;
+    private final AtomicLongArray published;
+    private final int recordBytes;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    LogRing(int records, int recordBytes) {
+        int slots = Integer.highestOneBit(Math.max(2, records - 1)) << 1;
+        this.data = new byte[Math.multiplyExact(slots, recordBytes)];
+        this.lengths = new int[slots];
+        this.published = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) published.set(i, -1);
+        this.recordBytes = recordBytes;
+        this.mask = slots - 1;
+    }
+
+    int recordBytes() {
+        return recordBytes;
+    }
+
+    byte[] data() {
+        return data;
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    // Returns the claimed sequence, or -1 when the ring is full.
+    long claim() {
+        while (true) {
+            long seq = claimed.get();
+            if (seq - consumed.get() > mask) {
+                dropped.increment();
+                return -1;
+            }
+            if (claimed.compareAndSet(seq, seq + 1)) return seq;
+        }
+    }
+
+    int offset(long seq) {
+        return (int) (seq & mask) * recordBytes;
+    }
+
+    void publish(long seq, int length) {
+        int slot = (int) (seq & mask);
+        lengths[slot] = length;
+        published.set(slot, seq);
+    }
+
+    // Hands every published record, in order, to the sink and only then frees their slots.
+    int drain(Sink sink) {
+        long start = consumed.get();
+        long seq = start;
+        while (true) {
+            int slot = (int) (seq & mask);
+            if (published.get(slot) != seq) break;
+            sink.write(data, slot * recordBytes, lengths[slot]);
+            seq++;
+        }
+        if (seq != start) consumed.set(seq);
+        return (int) (seq - start);
+    }
+
+    @FunctionalInterface
+    interface Sink {
+        void write(byte[] data, int offset, int length);
+    }
+}
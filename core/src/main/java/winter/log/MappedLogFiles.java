@@ -0,0 +1,123 @@
+package winter.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Numbered files (access-000001.log, ...) mapped at their full size up front so a write is a
+// memory copy. A file is truncated to what was written when it rotates or closes, and only
+// the newest maxFiles are kept. A crash skips that truncation, so opening trims the NUL padding
+// left at the end of the previous run's last file.
+final class MappedLogFiles implements AutoCloseable {
+
+    private static final Pattern NAME = Pattern.compile("access-(\\d+)\\.log");
+
+    private final Path dir;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private long index;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    MappedLogFiles(Path dir, long maxFileBytes, int maxFiles) throws IOException {
+        this.dir = dir;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        Files.createDirectories(dir);
+        for (long existing : existingIndexes()) index = Math.max(index, existing);
+        if (index > 0) trimPadding(dir.resolve(name(index)));
+    }
+
+    Path current() {
+        return dir.resolve(name(index));
+    }
+
+    void write(byte[] data, int offset, int length) throws IOException {
+        if (buffer == null || buffer.remaining() < length) rotate();
+        buffer.put(data, offset, length);
+    }
+
+    private void rotate() throws IOException {
+        finish();
+        index++;
+        Path file = dir.resolve(name(index));
+        channel =
+                FileChannel.open(
+                        file,
+                        StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, maxFileBytes);
+        prune();
+    }
+
+    private void finish() throws IOException {
+        if (channel == null) return;
+        int written = buffer.position();
+        buffer = null;
+        try (var closing = channel) {
+            closing.truncate(written);
+        } finally {
+            channel = null;
+        }
+    }
+
+    // Records never contain a NUL byte, so the file ends at the last non-NUL one. Scanned from
+    // the end because most of an abandoned file is usually padding.
+    private static void trimPadding(Path file) throws IOException {
+        try (var channel =
+                FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var chunk = ByteBuffer.allocate(64 * 1024);
+            long end = channel.size();
+            while (end > 0) {
+                long start = Math.max(0, end - chunk.capacity());
+                chunk.clear().limit((int) (end - start));
+                while (chunk.hasRemaining()) {
+                    if (channel.read(chunk, start + chunk.position()) < 0) break;
+                }
+                for (int i = chunk.position() - 1; i >= 0; i--) {
+                    if (chunk.get(i) != 0) {
+                        channel.truncate(start + i + 1);
+                        return;
+                    }
+                }
+                end = start;
+            }
+            channel.truncate(0);
+        }
+    }
+
+    private void prune() throws IOException {
+        for (long old : existingIndexes()) {
+            if (old <= index - maxFiles) Files.deleteIfExists(dir.resolve(name(old)));
+        }
+    }
+
+    private List<Long> existingIndexes() throws IOException {
+        var out = new ArrayList<Long>();
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) out.add(Long.parseLong(matcher.group(1)));
+            }
+        }
+        return out;
+    }
+
+    private static String name(long index) {
+        return String.format("access-%06d.log", index);
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+    }
+}
@@ -0,0 +1,92 @@
+package winter.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Log-linear histogram of nanosecond values: each power of two is split into four linear
+// sub-buckets (at most 25% relative error) from ~1us to ~18min. Counts live in a few
+// striped arrays picked by thread id, so concurrent recorders rarely share a cache line and
+// never take a lock.
+public final class Histogram {
+
+    private static final int SUB_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MIN_EXPONENT = 10;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = 1 + (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+    private static final int STRIPES =
+            Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()));
+
+    private final AtomicLongArray[] stripes;
+    private final LongAdder sum = new LongAdder();
+
+    public Histogram() {
+        this(STRIPES);
+    }
+
+    // Fewer stripes for secondary histograms that would otherwise multiply memory per route.
+    Histogram(int stripes) {
+        this.stripes = new AtomicLongArray[Integer.highestOneBit(Math.max(1, stripes))];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new AtomicLongArray(BUCKETS);
+        }
+    }
+
+    public void record(long nanos) {
+        int stripe = (int) Thread.currentThread().threadId() & (stripes.length - 1);
+        stripes[stripe].getAndIncrement(bucket(nanos));
+        sum.add(Math.max(0, nanos));
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long count = stripe.get(i);
+                counts[i] += count;
+                total += count;
+            }
+        }
+        return new Snapshot(counts, total, sum.sum());
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < 1L << MIN_EXPONENT) return 0;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket == 0) return 1L << MIN_EXPONENT;
+        int exponent = MIN_EXPONENT + (bucket - 1) / SUB_BUCKETS;
+        int sub = (bucket - 1) % SUB_BUCKETS;
+        long step = 1L << (exponent - SUB_BITS);
+        return (1L << exponent) + (sub + 1) * step;
+    }
+
+    public record Snapshot(long[] counts, long count, long sumNanos) {
+
+        // Upper bound of the bucket holding the q-th value, so it never under-reports.
+        public long valueAt(double quantile) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return upperBound(i);
+            }
+            return upperBound(counts.length - 1);
+        }
+
+        // Values in buckets that end at or below the bound (a bucket straddling it counts
+        // as above).
+        public long countAtOrBelow(long nanos) {
+            long total = 0;
+            for (int i = 0; i < counts.length && upperBound(i) <= nanos; i++) total += counts[i];
+            return total;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package winter.metrics;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+public final class MetricsRegistry {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] LATENCY_BUCKETS_SECONDS = {
+        0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    private static final Set<String> METHODS =
+            Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS");
+    private static final String[] STATUS_CLASSES = {"other", "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final Function<Path, String> routeLabel;
+    private final Map<Path, Map<String, RouteMetrics>> routes = new ConcurrentHashMap<>();
+    private final LongAdder unmatched = new LongAdder();
+    private final List<Family> families = new CopyOnWriteArrayList<>();
+
+    public MetricsRegistry(Function<Path, String> routeLabel) {
+        this.routeLabel = routeLabel;
+    }
+
+    // Two map reads and no allocation once a route/method pair has been seen. Unknown
+    // methods share one series so clients cannot grow the label set.
+    public RouteMetrics route(Path file, String requestMethod) {
+        String method = METHODS.contains(requestMethod) ? requestMethod : "OTHER";
+        var byMethod = routes.get(file);
+        if (byMethod == null) {
+            byMethod = routes.computeIfAbsent(file, ignored -> new ConcurrentHashMap<>());
+        }
+        var metrics = byMethod.get(method);
+        if (metrics != null) return metrics;
+        return byMethod.computeIfAbsent(
+                method, ignored -> new RouteMetrics(routeLabel.apply(file), method));
+    }
+
+    public List<RouteMetrics> routes() {
+        var out = new ArrayList<RouteMetrics>();
+        routes.values().forEach(byMethod -> out.addAll(byMethod.values()));
+        return out;
+    }
+
+    public void recordUnmatched() {
+        unmatched.increment();
+    }
+
+    public void gauge(String name, String help, Map<String, String> labels, LongSupplier value) {
+        var sorted = new TreeMap<>(labels);
+        collector(name, help, "gauge", sink -> sink.sample(sorted, value.getAsLong()));
+    }
+
+    public void counter(String name, String help, Map<String, String> labels, LongSupplier value) {
+        var sorted = new TreeMap<>(labels);
+        collector(name, help, "counter", sink -> sink.sample(sorted, value.getAsLong()));
+    }
+
+    // For series that come and go (per bulkhead, per compiled route), read at scrape time.
+    public void collector(String name, String help, String type, Collector collector) {
+        families.add(new Family(name, help, type, collector));
+    }
+
+    public String scrape() {
+        var out = new StringBuilder(4096);
+        var snapshot = routes();
+
+        family(
+                out,
+                "winter_requests_total",
+                "counter",
+                "Requests by route file, method and status class.");
+        for (RouteMetrics route : snapshot) {
+            for (int i = 1; i < STATUS_CLASSES.length; i++) {
+                long count = route.requests(i);
+                if (count == 0) continue;
+                out.append("winter_requests_total{");
+                routeLabels(out, route).append(",status=\"").append(STATUS_CLASSES[i]);
+                out.append("\"} ").append(count).append('\n');
+            }
+        }
+        family(out, "winter_unmatched_requests_total", "counter", "Requests matching no route.");
+        out.append("winter_unmatched_requests_total ").append(unmatched.sum()).append('\n');
+
+        family(
+                out,
+                "winter_request_duration_seconds",
+                "histogram",
+                "Request latency by route file and method.");
+        for (RouteMetrics route : snapshot) {
+            var histogram = route.latency().snapshot();
+            for (double bound : LATENCY_BUCKETS_SECONDS) {
+                long nanos = (long) (bound * TimeUnit.SECONDS.toNanos(1));
+                bucket(out, route, Double.toString(bound), histogram.countAtOrBelow(nanos));
+            }
+            bucket(out, route, "+Inf", histogram.count());
+            out.append("winter_request_duration_seconds_sum{");
+            routeLabels(out, route).append("} ").append(histogram.sumNanos() / 1e9).append('\n');
+            out.append("winter_request_duration_seconds_count{");
+            routeLabels(out, route).append("} ").append(histogram.count()).append('\n');
+        }
+
+        family(
+                out,
+                "winter_request_phase_seconds",
+                "histogram",
+                "Time spent per request phase by route file and method.");
+        for (RouteMetrics route : snapshot) {
+            for (Phase phase : Phase.values()) {
+                var histogram = route.phase(phase).snapshot();
+                if (histogram.count() == 0) continue;
+                String phaseLabel = ",phase=\"" + phase.label() + "\"";
+                for (double bound : LATENCY_BUCKETS_SECONDS) {
+                    long nanos = (long) (bound * TimeUnit.SECONDS.toNanos(1));
+                    out.append("winter_request_phase_seconds_bucket{");
+                    routeLabels(out, route).append(phaseLabel).append(",le=\"").append(bound);
+                    out.append("\"} ").append(histogram.countAtOrBelow(nanos)).append('\n');
+                }
+                out.append("winter_request_phase_seconds_bucket{");
+                routeLabels(out, route).append(phaseLabel).append(",le=\"+Inf\"} ");
+                out.append(histogram.count()).append('\n');
+                out.append("winter_request_phase_seconds_sum{");
+                routeLabels(out, route).append(phaseLabel).append("} ");
+                out.append(histogram.sumNanos() / 1e9).append('\n');
+                out.append("winter_request_phase_seconds_count{");
+                routeLabels(out, route).append(phaseLabel).append("} ");
+                out.append(histogram.count()).append('\n');
+            }
+        }
+
+        var byName = new LinkedHashMap<String, List<Family>>();
+        for (Family family : families) {
+            byName.computeIfAbsent(family.name, ignored -> new ArrayList<>()).add(family);
+        }
+        for (var group : byName.values()) {
+            Family first = group.getFirst();
+            family(out, first.name, first.type, first.help);
+            Sink sink =
+                    (labels, value) -> {
+                        out.append(first.name);
+                        if (!labels.isEmpty()) {
+                            out.append('{');
+                            boolean comma = false;
+                            for (var label : labels.entrySet()) {
+                                if (comma) out.append(',');
+                                label(out, label.getKey(), label.getValue());
+                                comma = true;
+                            }
+                            out.append('}');
+                        }
+                        out.append(' ');
+                        if (value == (long) value) out.append((long) value);
+                        else out.append(value);
+                        out.append('\n');
+                    };
+            for (Family family : group) family.collector.collect(sink);
+        }
+        return out.toString();
+    }
+
+    private static void family(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void bucket(StringBuilder out, RouteMetrics route, String le, long count) {
+        out.append("winter_request_duration_seconds_bucket{");
+        routeLabels(out, route).append(",le=\"").append(le).append("\"} ");
+        out.append(count).append('\n');
+    }
+
+    private static StringBuilder routeLabels(StringBuilder out, RouteMetrics route) {
+        label(out, "route", route.route());
+        out.append(',');
+        label(out, "method", route.method());
+        return out;
+    }
+
+    private static void label(StringBuilder out, String name, String value) {
+        out.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    @FunctionalInterface
+    public interface Collector {
+        void collect(Sink sink);
+    }
+
+    @FunctionalInterface
+    public interface Sink {
+        void sample(Map<String, String> labels, double value);
+    }
+
+    private record Family(String name, String help, String type, Collector collector) {}
+}
@@ -0,0 +1,17 @@
+package winter.metrics;
+
+import java.util.Locale;
+
+public enum Phase {
+    MATCH,
+    LOAD,
+    MIDDLEWARE,
+    HANDLER,
+    SERIALIZE;
+
+    private final String label = name().toLowerCase(Locale.ROOT);
+
+    public String label() {
+        return label;
+    }
+}
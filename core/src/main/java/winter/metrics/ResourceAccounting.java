@@ -0,0 +1,75 @@
+package winter.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+// Per-route thread CPU time and allocated bytes from com.sun.management.ThreadMXBean. The
+// readings cost a few hundred nanoseconds, so only a sampled fraction of requests pays them.
+public final class ResourceAccounting {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private final double sampleRate;
+    private final Function<Path, String> routeLabel;
+    private final Map<Path, RouteCost> routes = new ConcurrentHashMap<>();
+
+    public ResourceAccounting(double sampleRate, Function<Path, String> routeLabel) {
+        if (sampleRate <= 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate must be in (0, 1]");
+        }
+        this.sampleRate = sampleRate;
+        this.routeLabel = routeLabel;
+    }
+
+    public double sampleRate() {
+        return sampleRate;
+    }
+
+    public boolean sample() {
+        return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    // Negative values mean the request could not be measured.
+    public void record(Path file, long cpuNanos, long allocatedBytes) {
+        var cost = routes.get(file);
+        if (cost == null) {
+            cost = routes.computeIfAbsent(file, ignored -> new RouteCost(routeLabel.apply(file)));
+        }
+        cost.record(cpuNanos, allocatedBytes);
+    }
+
+    public List<RouteCost> routes() {
+        return new ArrayList<>(routes.values());
+    }
+
+    public List<RouteCost> top(int limit, Comparator<RouteCost> order) {
+        return routes.values().stream().sorted(order.reversed()).limit(limit).toList();
+    }
+
+    // -1 on virtual threads or when the JVM does not support thread CPU time.
+    public static long cpuTime() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadCpuTime();
+    }
+
+    // -1 on virtual threads or when the JVM does not support allocation counting.
+    public static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean mx)) {
+            return null;
+        }
+        if (!mx.isCurrentThreadCpuTimeSupported() || !mx.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        return mx;
+    }
+}
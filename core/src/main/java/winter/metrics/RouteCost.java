@@ -0,0 +1,72 @@
+package winter.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// CPU time and heap allocation attributed to one route file across sampled requests.
+public final class RouteCost {
+
+    private final String route;
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder unmeasured = new LongAdder();
+
+    RouteCost(String route) {
+        this.route = route;
+    }
+
+    public String route() {
+        return route;
+    }
+
+    public long samples() {
+        return samples.sum();
+    }
+
+    public long cpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    public long allocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    // Sampled requests whose thread could not be measured (virtual threads report -1).
+    public long unmeasured() {
+        return unmeasured.sum();
+    }
+
+    public long cpuNanosPerRequest() {
+        long count = samples();
+        return count == 0 ? 0 : cpuNanos() / count;
+    }
+
+    public long allocatedBytesPerRequest() {
+        long count = samples();
+        return count == 0 ? 0 : allocatedBytes() / count;
+    }
+
+    void record(long cpu, long allocated) {
+        if (cpu < 0 || allocated < 0) {
+            unmeasured.increment();
+            return;
+        }
+        samples.increment();
+        cpuNanos.add(cpu);
+        allocatedBytes.add(allocated);
+    }
+
+    public Map<String, Object> toMap() {
+        var out = new LinkedHashMap<String, Object>();
+        out.put("route", route);
+        out.put("samples", samples());
+        out.put("cpuMsPerRequest", cpuNanosPerRequest() / 1_000L / 1_000.0);
+        out.put("allocatedBytesPerRequest", allocatedBytesPerRequest());
+        out.put("cpuMsTotal", cpuNanos() / 1_000L / 1_000.0);
+        out.put("allocatedBytesTotal", allocatedBytes());
+        out.put("unmeasured", unmeasured());
+        return out;
+    }
+}
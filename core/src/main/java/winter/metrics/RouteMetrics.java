@@ -0,0 +1,61 @@
+package winter.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class RouteMetrics {
+
+    private final String route;
+    private final String method;
+    private final LongAdder[] statusClasses = new LongAdder[6];
+    private final Histogram latency = new Histogram();
+    private final Histogram[] phases = new Histogram[Phase.values().length];
+
+    RouteMetrics(String route, String method) {
+        this.route = route;
+        this.method = method;
+        for (int i = 0; i < statusClasses.length; i++) statusClasses[i] = new LongAdder();
+        for (int i = 0; i < phases.length; i++) phases[i] = new Histogram(2);
+    }
+
+    public String route() {
+        return route;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public Histogram latency() {
+        return latency;
+    }
+
+    public Histogram phase(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    public long requests() {
+        long total = 0;
+        for (LongAdder counter : statusClasses) total += counter.sum();
+        return total;
+    }
+
+    // Index 1-5 for 1xx-5xx; 0 collects anything out of range.
+    public long requests(int statusClass) {
+        return statusClasses[statusClass >= 1 && statusClass <= 5 ? statusClass : 0].sum();
+    }
+
+    public void record(int status, long nanos) {
+        int statusClass = status / 100;
+        statusClasses[statusClass >= 1 && statusClass <= 5 ? statusClass : 0].increment();
+        latency.record(nanos);
+    }
+
+    // Phases that never ran (a cache hit skips the handler, a 404 skips loading) stay out of
+    // their histograms instead of piling up at zero.
+    public void record(int status, long nanos, long[] phaseNanos) {
+        record(status, nanos);
+        for (int i = 0; i < phases.length; i++) {
+            if (phaseNanos[i] > 0) phases[i].record(phaseNanos[i]);
+        }
+    }
+}
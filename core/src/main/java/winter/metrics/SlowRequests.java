@@ -0,0 +1,80 @@
+package winter.metrics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Keeps the most recent requests that ran past a threshold. Requests under it cost one
+// comparison; the rest overwrite the oldest slot without locking.
+public final class SlowRequests {
+
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<Entry> slots;
+    private final AtomicLong next = new AtomicLong();
+
+    public SlowRequests(long thresholdNanos, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        this.thresholdNanos = thresholdNanos;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public long thresholdNanos() {
+        return thresholdNanos;
+    }
+
+    public boolean offer(
+            String method, String path, String route, int status, long nanos, long[] phases) {
+        if (nanos < thresholdNanos) return false;
+        var entry = new Entry(Instant.now(), method, path, route, status, nanos, phases.clone());
+        slots.set((int) (next.getAndIncrement() % slots.length()), entry);
+        return true;
+    }
+
+    // Slowest first.
+    public List<Entry> snapshot() {
+        var out = new ArrayList<Entry>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            Entry entry = slots.get(i);
+            if (entry != null) out.add(entry);
+        }
+        out.sort(Comparator.comparingLong(Entry::nanos).reversed());
+        return out;
+    }
+
+    public record Entry(
+            Instant at,
+            String method,
+            String path,
+            String route,
+            int status,
+            long nanos,
+            long[] phaseNanos) {
+
+        public Map<String, Object> toMap() {
+            var phases = new LinkedHashMap<String, Double>();
+            for (Phase phase : Phase.values()) {
+                phases.put(phase.label(), millis(phaseNanos[phase.ordinal()]));
+            }
+            var out = new LinkedHashMap<String, Object>();
+            out.put("at", at.toString());
+            out.put("method", method);
+            out.put("path", path);
+            out.put("route", route);
+            out.put("status", status);
+            out.put("durationMs", millis(nanos));
+            out.put("phasesMs", phases);
+            return out;
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000L / 1_000.0;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package winter.middleware;
+
+import winter.Ctx;
+import winter.Res;
+import winter.jfr.MiddlewareShortCircuitEvent;
+
+import java.util.List;
+
+public final class MiddlewareChain {
+
+    private static final MiddlewareChain EMPTY = new MiddlewareChain(new Middleware[0]);
+
+    private final Middleware[] middlewares;
+
+    private MiddlewareChain(Middleware[] middlewares) {
+        this.middlewares = middlewares;
+    }
+
+    public static MiddlewareChain of(List<Middleware> middlewares) {
+        if (middlewares.isEmpty()) return EMPTY;
+        return new MiddlewareChain(middlewares.toArray(new Middleware[0]));
+    }
+
+    public int size() {
+        return middlewares.length;
+    }
+
+    public Object execute(Ctx ctx, Terminal terminal, Fallback fallback) {
+        if (middlewares.length == 0) {
+            try {
+                return terminal.handle();
+            } catch (Exception exception) {
+                return fallback.handle(ctx, exception);
+            }
+        }
+
+        // Only middleware whose before() ran gets after()/onError(), innermost first.
+        int entered = 0;
+        Object early = null;
+        try {
+            while (entered < middlewares.length) {
+                early = middlewares[entered++].before(ctx);
+                if (early != null) {
+                    shortCircuited(middlewares[entered - 1], ctx, early);
+                    break;
+                }
+            }
+
+            Object result = early != null ? early : terminal.handle();
+
+            for (int i = entered - 1; i >= 0; i--) {
+                result = middlewares[i].after(ctx, result);
+            }
+
+            return result;
+        } catch (Exception exception) {
+            Object result = null;
+            Exception current = exception;
+
+            for (int i = entered - 1; i >= 0; i--) {
+                try {
+                    result = middlewares[i].onError(ctx, current);
+                    current = null;
+                    break;
+                } catch (Exception next) {
+                    current = next;
+                }
+            }
+
+            if (current != null) {
+                result = fallback.handle(ctx, current);
+            }
+
+            for (int i = entered - 1; i >= 0; i--) {
+                try {
+                    result = middlewares[i].after(ctx, result);
+                } catch (Exception ignored) {
+                    // Best-effort after hooks; response will fall back to what we have.
+                }
+            }
+
+            return result;
+        }
+    }
+
+    private static void shortCircuited(Middleware middleware, Ctx ctx, Object result) {
+        var event = new MiddlewareShortCircuitEvent();
+        if (!event.isEnabled()) return;
+        event.middleware = middleware.getClass().getName();
+        event.path = ctx == null ? null : ctx.path();
+        event.status = result instanceof Res res ? res.status() : 0;
+        event.commit();
+    }
+
+    @FunctionalInterface
+    public interface Terminal {
+        Object handle() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Fallback {
+        Object handle(Ctx ctx, Exception exception);
+    }
+}
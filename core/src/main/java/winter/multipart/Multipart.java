@@ -0,0 +1,331 @@
+package winter.multipart;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import winter.HttpError;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+public final class Multipart implements Iterator<Part>, Iterable<Part>, AutoCloseable {
+
+    private static final int BUFFER_BYTES = 16 * 1024;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final MultipartConfig config;
+    private final byte[] buffer;
+    private final List<Part> parts = new ArrayList<>();
+    private int pos;
+    private int limit;
+    private long requestBytes;
+    private long memoryBytes;
+    private boolean eof;
+    private boolean finished;
+    private Part next;
+
+    private Multipart(InputStream in, String boundary, MultipartConfig config) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(ISO_8859_1);
+        this.config = config;
+        this.buffer = new byte[Math.max(BUFFER_BYTES, delimiter.length * 2)];
+
+        // Seed a CRLF so the first boundary (which has no leading line break) matches the
+        // same delimiter as every later one; everything before it is preamble.
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        limit = 2;
+    }
+
+    public static Multipart read(InputStream in, String contentType, MultipartConfig config) {
+        String boundary = boundary(contentType);
+        if (boundary == null) {
+            throw new HttpError(
+                    400,
+                    Map.of("error", "Bad Request", "message", "Missing multipart boundary"));
+        }
+        var multipart = new Multipart(in, boundary, config);
+        try {
+            multipart.skipPart(null);
+        } catch (IOException exception) {
+            throw malformed();
+        }
+        return multipart;
+    }
+
+    @Override
+    public Iterator<Part> iterator() {
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) return true;
+        if (finished) return false;
+        try {
+            next = readPart();
+        } catch (IOException exception) {
+            throw malformed();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Part next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Part part = next;
+        next = null;
+        return part;
+    }
+
+    public Map<String, String> fields() {
+        var out = new HashMap<String, String>();
+        for (Part part : parts) {
+            if (part.filename() == null) out.putIfAbsent(part.name(), part.text());
+        }
+        while (hasNext()) {
+            Part part = next();
+            if (part.filename() == null) out.putIfAbsent(part.name(), part.text());
+        }
+        return Map.copyOf(out);
+    }
+
+    @Override
+    public void close() {
+        for (Part part : parts) part.delete();
+    }
+
+    private Part readPart() throws IOException {
+        if (config.maxParts() > 0 && parts.size() >= config.maxParts()) {
+            throw new HttpError(
+                    413, Map.of("error", "Payload Too Large", "message", "Too many parts"));
+        }
+        Map<String, List<String>> headers = readHeaders();
+        String disposition = first(headers, "content-disposition");
+        String name = parameter(disposition, "name");
+        String filename = parameter(disposition, "filename");
+
+        var sink = new Sink();
+        try {
+            skipPart(sink);
+        } catch (IOException | RuntimeException exception) {
+            sink.discard();
+            throw exception;
+        }
+
+        Part part = sink.toPart(headers, name == null ? "" : name, filename);
+        parts.add(part);
+        return part;
+    }
+
+    // Reads up to and including the next delimiter, sending the bytes before it to sink
+    // (or dropping them when sink is null), then consumes the line ending or final "--".
+    private void skipPart(Sink sink) throws IOException {
+        while (true) {
+            int found = indexOf(delimiter, pos, limit);
+            if (found >= 0) {
+                if (sink != null) sink.write(buffer, pos, found - pos);
+                pos = found + delimiter.length;
+                afterDelimiter();
+                return;
+            }
+
+            int safe = limit - delimiter.length + 1;
+            if (safe > pos) {
+                if (sink != null) sink.write(buffer, pos, safe - pos);
+                pos = safe;
+            }
+            if (!fill()) throw malformed();
+        }
+    }
+
+    private void afterDelimiter() throws IOException {
+        if (!ensure(2)) throw malformed();
+        if (buffer[pos] == '-' && buffer[pos + 1] == '-') {
+            pos += 2;
+            finished = true;
+            return;
+        }
+
+        // Transport padding (linear whitespace) is allowed before the line break.
+        while (true) {
+            if (!ensure(1)) throw malformed();
+            byte b = buffer[pos];
+            if (b != ' ' && b != '\t') break;
+            pos++;
+        }
+        if (!ensure(2) || buffer[pos] != '\r' || buffer[pos + 1] != '\n') throw malformed();
+        pos += 2;
+    }
+
+    private Map<String, List<String>> readHeaders() throws IOException {
+        var headers = new HashMap<String, List<String>>();
+        int headerBytes = 0;
+        while (true) {
+            String line = readLine();
+            if (line == null) throw malformed();
+            if (line.isEmpty()) break;
+            headerBytes += line.length();
+            if (headerBytes > MAX_HEADER_BYTES) throw malformed();
+
+            int colon = line.indexOf(':');
+            if (colon <= 0) throw malformed();
+            String name = line.substring(0, colon).trim().toLowerCase();
+            String value = line.substring(colon + 1).trim();
+            headers.computeIfAbsent(name, ignored -> new ArrayList<>(1)).add(value);
+        }
+        var out = new HashMap<String, List<String>>(headers.size());
+        headers.forEach((name, values) -> out.put(name, List.copyOf(values)));
+        return Map.copyOf(out);
+    }
+
+    private String readLine() throws IOException {
+        while (true) {
+            for (int i = pos; i + 1 < limit; i++) {
+                if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                    String line = new String(buffer, pos, i - pos, UTF_8);
+                    pos = i + 2;
+                    return line;
+                }
+            }
+            if (limit - pos >= MAX_HEADER_BYTES) throw malformed();
+            if (!fill()) return null;
+        }
+    }
+
+    private boolean ensure(int bytes) throws IOException {
+        while (limit - pos < bytes) {
+            if (!fill()) return false;
+        }
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) return false;
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buffer.length) return false;
+
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read == -1) {
+            eof = true;
+            return false;
+        }
+        requestBytes += read;
+        if (config.maxRequestBytes() > 0 && requestBytes > config.maxRequestBytes()) {
+            throw new HttpError(413, Map.of("error", "Payload Too Large"));
+        }
+        limit += read;
+        return true;
+    }
+
+    private int indexOf(byte[] needle, int from, int to) {
+        int last = to - needle.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (buffer[i + j] != needle[j]) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static String boundary(String contentType) {
+        if (contentType == null) return null;
+        if (!contentType.toLowerCase().startsWith("multipart/")) return null;
+        String boundary = parameter(contentType, "boundary");
+        if (boundary == null || boundary.isEmpty() || boundary.length() > 200) return null;
+        return boundary;
+    }
+
+    private static String parameter(String header, String name) {
+        if (header == null) return null;
+        for (String raw : header.split(";")) {
+            String token = raw.trim();
+            int eq = token.indexOf('=');
+            if (eq <= 0) continue;
+            if (!token.substring(0, eq).trim().equalsIgnoreCase(name)) continue;
+            String value = token.substring(eq + 1).trim();
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            return value;
+        }
+        return null;
+    }
+
+    private static String first(Map<String, List<String>> headers, String name) {
+        List<String> values = headers.get(name);
+        if (values == null || values.isEmpty()) return null;
+        return values.getFirst();
+    }
+
+    private static HttpError malformed() {
+        return new HttpError(
+                400, Map.of("error", "Bad Request", "message", "Malformed multipart body"));
+    }
+
+    private final class Sink {
+
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private OutputStream out;
+        private Path file;
+        private long size;
+
+        void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) return;
+            size += length;
+            if (config.maxPartBytes() > 0 && size > config.maxPartBytes()) {
+                throw new HttpError(413, Map.of("error", "Payload Too Large"));
+            }
+
+            // Small parts are kept on the heap until the request ends, so past the per-request
+            // memory cap every further part goes to disk however small it is.
+            if (out == null
+                    && (size > config.memoryThresholdBytes()
+                            || (config.maxMemoryBytes() > 0
+                                    && memoryBytes + size > config.maxMemoryBytes()))) {
+                Files.createDirectories(config.tempDir());
+                file = Files.createTempFile(config.tempDir(), "winter-upload-", ".part");
+                out = Files.newOutputStream(file);
+                memory.writeTo(out);
+                memory = null;
+            }
+
+            if (out != null) out.write(bytes, offset, length);
+            else memory.write(bytes, offset, length);
+        }
+
+        Part toPart(Map<String, List<String>> headers, String name, String filename)
+                throws IOException {
+            if (out == null) {
+                memoryBytes += size;
+                return new Part(headers, name, filename, size, memory.toByteArray(), null);
+            }
+            out.close();
+            return new Part(headers, name, filename, size, null, file);
+        }
+
+        void discard() throws IOException {
+            if (out == null) return;
+            out.close();
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package winter.multipart;
+
+import java.nio.file.Path;
+
+public record MultipartConfig(
+        long memoryThresholdBytes,
+        long maxMemoryBytes,
+        long maxPartBytes,
+        long maxRequestBytes,
+        int maxParts,
+        Path tempDir) {
+    public static final long DEFAULT_MEMORY_THRESHOLD_BYTES = 16 * 1024;
+    public static final long DEFAULT_MAX_MEMORY_BYTES = 1024 * 1024;
+    public static final long DEFAULT_MAX_PART_BYTES = 64L * 1024 * 1024;
+    public static final long DEFAULT_MAX_REQUEST_BYTES = 256L * 1024 * 1024;
+    public static final int DEFAULT_MAX_PARTS = 1_000;
+
+    public static MultipartConfig defaults() {
+        return new MultipartConfig(
+                DEFAULT_MEMORY_THRESHOLD_BYTES,
+                DEFAULT_MAX_MEMORY_BYTES,
+                DEFAULT_MAX_PART_BYTES,
+                DEFAULT_MAX_REQUEST_BYTES,
+                DEFAULT_MAX_PARTS,
+                Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    public MultipartConfig withMemoryThresholdBytes(long memoryThresholdBytes) {
+        return new MultipartConfig(
+                memoryThresholdBytes,
+                maxMemoryBytes,
+                maxPartBytes,
+                maxRequestBytes,
+                maxParts,
+                tempDir);
+    }
+
+    public MultipartConfig withMaxMemoryBytes(long maxMemoryBytes) {
+        return new MultipartConfig(
+                memoryThresholdBytes,
+                maxMemoryBytes,
+                maxPartBytes,
+                maxRequestBytes,
+                maxParts,
+                tempDir);
+    }
+
+    public MultipartConfig withMaxPartBytes(long maxPartBytes) {
+        return new MultipartConfig(
+                memoryThresholdBytes,
+                maxMemoryBytes,
+                maxPartBytes,
+                maxRequestBytes,
+                maxParts,
+                tempDir);
+    }
+
+    public MultipartConfig withMaxRequestBytes(long maxRequestBytes) {
+        return new MultipartConfig(
+                memoryThresholdBytes,
+                maxMemoryBytes,
+                maxPartBytes,
+                maxRequestBytes,
+                maxParts,
+                tempDir);
+    }
+
+    public MultipartConfig withMaxParts(int maxParts) {
+        return new MultipartConfig(
+                memoryThresholdBytes,
+                maxMemoryBytes,
+                maxPartBytes,
+                maxRequestBytes,
+                maxParts,
+                tempDir);
+    }
+
+    public MultipartConfig withTempDir(Path tempDir) {
+        return new MultipartConfig(
+                memoryThresholdBytes,
+                maxMemoryBytes,
+                maxPartBytes,
+                maxRequestBytes,
+                maxParts,
+                tempDir);
+    }
+}
@@ -0,0 +1,118 @@
+package winter.multipart;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import winter.log.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+
+public final class Part {
+
+    private final Map<String, List<String>> headers;
+    private final String name;
+    private final String filename;
+    private final long size;
+    private final byte[] bytes;
+    private Path file;
+    private Path tempFile;
+
+    Part(
+            Map<String, List<String>> headers,
+            String name,
+            String filename,
+            long size,
+            byte[] bytes,
+            Path file) {
+        this.headers = headers;
+        this.name = name;
+        this.filename = filename;
+        this.size = size;
+        this.bytes = bytes;
+        this.file = file;
+        this.tempFile = file;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String filename() {
+        return filename;
+    }
+
+    public String contentType() {
+        return header("content-type");
+    }
+
+    public String header(String name) {
+        List<String> values = headers.get(name.toLowerCase());
+        if (values == null || values.isEmpty()) return null;
+        return values.getFirst();
+    }
+
+    public Map<String, List<String>> headers() {
+        return headers;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isInMemory() {
+        return bytes != null;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public byte[] bytes() {
+        if (bytes != null) return bytes;
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to read spilled part: " + file, exception);
+        }
+    }
+
+    public String text() {
+        return new String(bytes(), UTF_8);
+    }
+
+    public InputStream inputStream() throws IOException {
+        if (bytes != null) return new ByteArrayInputStream(bytes);
+        return Files.newInputStream(file);
+    }
+
+    public void transferTo(Path target) throws IOException {
+        if (bytes != null) {
+            Files.write(target, bytes);
+            return;
+        }
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        file = target;
+        tempFile = null;
+    }
+
+    void delete() {
+        if (tempFile == null) return;
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException exception) {
+            Log.warn(
+                    "Failed to delete multipart temp file: "
+                            + tempFile
+                            + " ("
+                            + exception.getMessage()
+                            + ")");
+        }
+    }
+}
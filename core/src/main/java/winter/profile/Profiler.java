@@ -0,0 +1,151 @@
+package winter.profile;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+// Time-boxed in-process CPU profile from JFR execution samples, folded into collapsed stacks
+// ("root;child;leaf count" per line) for flame-graph tools. With a route filter, only samples
+// taken while the sampled thread was inside that route's handler are kept, matched against
+// winter.RouteExecution intervals recorded in the same stream.
+public final class Profiler {
+
+    public static final Duration MAX_DURATION = Duration.ofSeconds(60);
+    private static final Duration SAMPLE_PERIOD = Duration.ofMillis(10);
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public String collapsedStacks(Duration duration, String route) throws InterruptedException {
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(MAX_DURATION) > 0) {
+            throw new IllegalArgumentException("duration must be between 0 and " + MAX_DURATION);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A profiling session is already running");
+        }
+        try {
+            return fold(record(duration, route), route);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static Session record(Duration duration, String route) throws InterruptedException {
+        var session = new Session(route);
+        try (var stream = new RecordingStream()) {
+            stream.enable("jdk.ExecutionSample").withPeriod(SAMPLE_PERIOD);
+            stream.onEvent("jdk.ExecutionSample", session::sample);
+            if (route != null) {
+                stream.enable("winter.RouteExecution").withoutThreshold();
+                stream.onEvent("winter.RouteExecution", session::execution);
+            }
+            stream.startAsync();
+            Thread.sleep(duration.toMillis());
+            stream.stop();
+        }
+        return session;
+    }
+
+    private static String fold(Session session, String route) {
+        var counts = new TreeMap<String, Integer>();
+        for (Sample sample : session.samples) {
+            if (route != null && !session.inRoute(sample)) continue;
+            counts.merge(sample.stack, 1, Integer::sum);
+        }
+        var out = new StringBuilder();
+        counts.forEach((stack, count) -> out.append(stack).append(' ').append(count).append('\n'));
+        return out.toString();
+    }
+
+    private record Sample(long threadId, long at, String stack) {}
+
+    private record Execution(long start, long end) {}
+
+    // One thread's executions sorted by start; maxEnds[i] is the latest end among the first
+    // i + 1, so an instant is covered when the last execution starting at or before it has a
+    // maxEnd at or after it. That holds even if executions overlap.
+    private record Intervals(long[] starts, long[] maxEnds) {
+
+        static Intervals of(List<Execution> executions) {
+            var sorted = new ArrayList<>(executions);
+            sorted.sort(Comparator.comparingLong(Execution::start));
+            long[] starts = new long[sorted.size()];
+            long[] maxEnds = new long[sorted.size()];
+            long maxEnd = Long.MIN_VALUE;
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = sorted.get(i).start();
+                maxEnd = Math.max(maxEnd, sorted.get(i).end());
+                maxEnds[i] = maxEnd;
+            }
+            return new Intervals(starts, maxEnds);
+        }
+
+        boolean covers(long at) {
+            int i = Arrays.binarySearch(starts, at);
+            if (i < 0) i = -i - 2;
+            return i >= 0 && maxEnds[i] >= at;
+        }
+    }
+
+    // Filled on the stream's dispatch thread and read only after the stream has stopped.
+    private static final class Session {
+
+        private final String route;
+        private final List<Sample> samples = new ArrayList<>();
+        private final Map<Long, List<Execution>> executions = new HashMap<>();
+        private Map<Long, Intervals> intervals;
+
+        Session(String route) {
+            this.route = route;
+        }
+
+        void sample(RecordedEvent event) {
+            var thread = event.getThread("sampledThread");
+            var trace = event.getStackTrace();
+            if (thread == null || trace == null || trace.getFrames().isEmpty()) return;
+
+            List<RecordedFrame> frames = trace.getFrames();
+            var stack = new StringBuilder();
+            for (int i = frames.size() - 1; i >= 0; i--) {
+                var method = frames.get(i).getMethod();
+                if (!stack.isEmpty()) stack.append(';');
+                stack.append(method.getType().getName()).append('.').append(method.getName());
+            }
+            long threadId = thread.getJavaThreadId();
+            samples.add(new Sample(threadId, nanos(event.getStartTime()), stack.toString()));
+        }
+
+        void execution(RecordedEvent event) {
+            var thread = event.getThread();
+            if (thread == null || !route.equals(event.getString("route"))) return;
+            executions
+                    .computeIfAbsent(thread.getJavaThreadId(), ignored -> new ArrayList<>())
+                    .add(new Execution(nanos(event.getStartTime()), nanos(event.getEndTime())));
+        }
+
+        // Indexed once after the stream stops, so each sample is a binary search on its own
+        // thread's executions instead of a scan over all of them.
+        boolean inRoute(Sample sample) {
+            if (intervals == null) {
+                intervals = new HashMap<>();
+                executions.forEach((thread, list) -> intervals.put(thread, Intervals.of(list)));
+            }
+            Intervals thread = intervals.get(sample.threadId);
+            return thread != null && thread.covers(sample.at);
+        }
+
+        private static long nanos(Instant instant) {
+            return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+        }
+    }
+}
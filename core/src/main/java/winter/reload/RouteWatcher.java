@@ -1,6 +1,8 @@
 package winter.reload;
 
 import winter.compiler.RouteCompiler;
+import winter.jfr.RouteReloadEvent;
+import winter.log.Log;
 
 import java.io.IOException;
 import java.nio.file.FileVisitResult;
@@ -43,6 +45,7 @@ public final class RouteWatcher implements AutoCloseable {
             var watcher = new RouteWatcher(normalized, compiler, service);
             watcher.registerDirTree(normalized);
             watcher.precompileAll();
+            compiler.watched(true);
             watcher.thread.start();
             return watcher;
         } catch (IOException exception) {
@@ -69,7 +72,7 @@ public final class RouteWatcher implements AutoCloseable {
 
                     @Override
                     public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                        System.err.println(
+                        Log.warn(
                                 "RouteWatcher: failed to visit "
                                         + file
                                         + " ("
@@ -89,7 +92,7 @@ public final class RouteWatcher implements AutoCloseable {
         try (var stream = Files.walk(routesDir)) {
             stream.filter(Files::isRegularFile)
                     .filter(p -> p.getFileName().toString().endsWith(".java"))
-                    .forEach(this::recompileQuietly);
+                    .forEach(file -> recompileQuietly(file, "create"));
         }
     }
 
@@ -102,7 +105,17 @@ public final class RouteWatcher implements AutoCloseable {
                 StandardWatchEventKinds.ENTRY_DELETE);
     }
 
+    // Once this stops delivering events the compiler goes back to checking middleware files
+    // itself.
     private void run() {
+        try {
+            watch();
+        } finally {
+            compiler.watched(false);
+        }
+    }
+
+    private void watch() {
         while (running.get()) {
             WatchKey key;
             try {
@@ -110,8 +123,7 @@ public final class RouteWatcher implements AutoCloseable {
             } catch (InterruptedException ignored) {
                 return;
             } catch (Exception exception) {
-                System.err.println(
-                        "RouteWatcher: watchService failed (" + exception.getMessage() + ")");
+                Log.warn("RouteWatcher: watchService failed (" + exception.getMessage() + ")");
                 return;
             }
 
@@ -131,7 +143,7 @@ public final class RouteWatcher implements AutoCloseable {
                             registerDirTree(child);
                             precompileNewRoutesUnder(child);
                         } catch (IOException exception) {
-                            System.err.println(
+                            Log.warn(
                                     "RouteWatcher: failed to register new directory "
                                             + child
                                             + " ("
@@ -145,17 +157,21 @@ public final class RouteWatcher implements AutoCloseable {
                 if (!child.getFileName().toString().endsWith(".java")) continue;
 
                 if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                    var reload = new RouteReloadEvent();
+                    reload.begin();
                     compiler.invalidate(child);
-                    System.err.println("RouteWatcher: removed " + routesDir.relativize(child));
+                    commit(reload, child, "delete", true);
+                    Log.info("RouteWatcher: removed " + routesDir.relativize(child));
                     continue;
                 }
 
-                recompileQuietly(child);
+                String change = kind == StandardWatchEventKinds.ENTRY_CREATE ? "create" : "modify";
+                recompileQuietly(child, change);
             }
 
             boolean valid = key.reset();
             if (!valid) {
-                System.err.println("RouteWatcher: watch key invalid for " + dir);
+                Log.warn("RouteWatcher: watch key invalid for " + dir);
             }
         }
     }
@@ -164,23 +180,39 @@ public final class RouteWatcher implements AutoCloseable {
         try (var stream = Files.walk(dir)) {
             stream.filter(Files::isRegularFile)
                     .filter(p -> p.getFileName().toString().endsWith(".java"))
-                    .forEach(this::recompileQuietly);
+                    .forEach(file -> recompileQuietly(file, "create"));
         }
     }
 
-    private void recompileQuietly(Path routeFile) {
+    private void recompileQuietly(Path routeFile, String change) {
+        var reload = new RouteReloadEvent();
+        reload.begin();
         compiler.invalidate(routeFile);
         if (!Files.isRegularFile(routeFile)) return;
 
         try {
             compiler.load(routeFile);
-            System.err.println("RouteWatcher: recompiled " + routesDir.relativize(routeFile));
+            commit(reload, routeFile, change, true);
+            Log.info("RouteWatcher: recompiled " + routesDir.relativize(routeFile));
         } catch (Exception exception) {
-            System.err.println("RouteWatcher: compile error in " + routesDir.relativize(routeFile));
-            System.err.println(exception.getMessage());
+            commit(reload, routeFile, change, false);
+            Log.warn(
+                    "RouteWatcher: compile error in "
+                            + routesDir.relativize(routeFile)
+                            + "\n"
+                            + exception.getMessage());
         }
     }
 
+    private static void commit(RouteReloadEvent reload, Path file, String change, boolean ok) {
+        reload.end();
+        if (!reload.shouldCommit()) return;
+        reload.file = file.toString();
+        reload.change = change;
+        reload.success = ok;
+        reload.commit();
+    }
+
     @Override
     public void close() {
         running.set(false);
@@ -0,0 +1,28 @@
+package winter.resilience;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Breaker {
+    double failureRate() default 0.5;
+
+    long slowCallMillis() default 0;
+
+    double slowCallRate() default 1.0;
+
+    int windowSeconds() default 10;
+
+    int minCalls() default 20;
+
+    long openMillis() default 5_000;
+
+    int halfOpenProbes() default 3;
+
+    int status() default 503;
+
+    String message() default "Service Unavailable";
+}
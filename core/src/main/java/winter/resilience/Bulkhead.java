@@ -0,0 +1,77 @@
+package winter.resilience;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Bulkhead implements AutoCloseable {
+
+    private final BulkheadConfig config;
+    private final ThreadPoolExecutor executor;
+    private final int capacity;
+    private final AtomicInteger admitted = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(BulkheadConfig config) {
+        this.config = config;
+        this.capacity = config.maxConcurrent() + config.maxQueued();
+
+        this.executor =
+                new ThreadPoolExecutor(
+                        config.maxConcurrent(),
+                        config.maxConcurrent(),
+                        60,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(),
+                        Thread.ofPlatform()
+                                .name("winter-bulkhead-" + config.name() + "-", 1)
+                                .daemon()
+                                .factory());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public BulkheadConfig config() {
+        return config;
+    }
+
+    public Executor executor() {
+        return executor;
+    }
+
+    public int active() {
+        return executor.getActiveCount();
+    }
+
+    public int queued() {
+        return executor.getQueue().size();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    // Admission is counted here rather than by bounding the executor queue, so a full
+    // bulkhead is known before the request is handed off and can be answered right away.
+    public boolean tryAcquire() {
+        while (true) {
+            int current = admitted.get();
+            if (current >= capacity) {
+                rejected.increment();
+                return false;
+            }
+            if (admitted.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    public void release() {
+        admitted.decrementAndGet();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
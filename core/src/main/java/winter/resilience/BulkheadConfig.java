@@ -0,0 +1,32 @@
+package winter.resilience;
+
+import java.util.List;
+
+public record BulkheadConfig(
+        String name, int maxConcurrent, int maxQueued, List<String> pathPrefixes) {
+
+    public BulkheadConfig {
+        if (name == null || name.isEmpty()) throw new IllegalArgumentException("name is required");
+        if (maxConcurrent < 1) throw new IllegalArgumentException("maxConcurrent must be >= 1");
+        if (maxQueued < 0) throw new IllegalArgumentException("maxQueued must be >= 0");
+        pathPrefixes = List.copyOf(pathPrefixes);
+    }
+
+    public static BulkheadConfig of(String name, int maxConcurrent, int maxQueued) {
+        return new BulkheadConfig(name, maxConcurrent, maxQueued, List.of());
+    }
+
+    public BulkheadConfig withPathPrefixes(List<String> pathPrefixes) {
+        return new BulkheadConfig(name, maxConcurrent, maxQueued, pathPrefixes);
+    }
+
+    public boolean matches(String path) {
+        for (String prefix : pathPrefixes) {
+            if (!path.startsWith(prefix)) continue;
+            if (path.length() == prefix.length()
+                    || prefix.endsWith("/")
+                    || path.charAt(prefix.length()) == '/') return true;
+        }
+        return false;
+    }
+}
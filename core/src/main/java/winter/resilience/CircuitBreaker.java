@@ -0,0 +1,160 @@
+package winter.resilience;
+
+import winter.HttpError;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final long BUCKET_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Breaker config;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final Bucket[] buckets;
+    private final AtomicInteger state = new AtomicInteger(State.CLOSED.ordinal());
+    private final AtomicInteger probes = new AtomicInteger();
+    private final AtomicInteger probeSuccesses = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private volatile long openedAt;
+
+    public CircuitBreaker(Breaker config) {
+        this.config = config;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(config.slowCallMillis());
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(config.openMillis());
+        this.buckets = new Bucket[Math.max(1, config.windowSeconds())];
+        for (int i = 0; i < buckets.length; i++) buckets[i] = new Bucket();
+    }
+
+    public State state() {
+        return State.values()[state.get()];
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long opened() {
+        return opened.sum();
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    public boolean tryAcquire(long now) {
+        while (true) {
+            int current = state.get();
+            if (current == State.CLOSED.ordinal()) return true;
+            if (current == State.OPEN.ordinal()) {
+                if (now - openedAt < openNanos) break;
+                if (transition(State.OPEN, State.HALF_OPEN)) {
+                    probeSuccesses.set(0);
+                    probes.set(config.halfOpenProbes());
+                }
+                continue;
+            }
+            // Half-open: only a few probes go through until they all succeed or one fails.
+            if (probes.getAndDecrement() > 0) return true;
+            break;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void record(boolean failed, long latencyNanos) {
+        record(failed, latencyNanos, System.nanoTime());
+    }
+
+    public void record(boolean failed, long latencyNanos, long now) {
+        boolean slow = slowCallNanos > 0 && latencyNanos >= slowCallNanos;
+        int current = state.get();
+
+        if (current == State.HALF_OPEN.ordinal()) {
+            if (failed || slow) open(State.HALF_OPEN, now);
+            else if (probeSuccesses.incrementAndGet() >= config.halfOpenProbes()
+                    && transition(State.HALF_OPEN, State.CLOSED)) {
+                for (Bucket bucket : buckets) bucket.clear();
+            }
+            return;
+        }
+        if (current != State.CLOSED.ordinal()) return;
+
+        long epoch = Math.floorDiv(now, BUCKET_NANOS);
+        buckets[Math.floorMod(epoch, buckets.length)].add(epoch, failed, slow);
+
+        long calls = 0;
+        long failures = 0;
+        long slowCalls = 0;
+        for (Bucket bucket : buckets) {
+            long seen = bucket.epoch.get();
+            if (seen == Long.MIN_VALUE || epoch - seen >= buckets.length) continue;
+            calls += bucket.calls.sum();
+            failures += bucket.failures.sum();
+            slowCalls += bucket.slow.sum();
+        }
+        if (calls < config.minCalls()) return;
+        if (failures >= calls * config.failureRate()
+                || (slowCallNanos > 0 && slowCalls >= calls * config.slowCallRate())) {
+            open(State.CLOSED, now);
+        }
+    }
+
+    public HttpError rejection() {
+        long remaining = openNanos - (System.nanoTime() - openedAt);
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining + 999_999_999L));
+        return new HttpError(
+                config.status(),
+                Map.of("error", config.message()),
+                Map.of("Retry-After", Long.toString(seconds)));
+    }
+
+    private void open(State from, long now) {
+        if (state.get() != from.ordinal()) return;
+        openedAt = now;
+        if (transition(from, State.OPEN)) opened.increment();
+    }
+
+    private boolean transition(State from, State to) {
+        return state.compareAndSet(from.ordinal(), to.ordinal());
+    }
+
+    // One second of the sliding window; the first writer in a new second recycles it.
+    private static final class Bucket {
+
+        private final AtomicLong epoch = new AtomicLong(Long.MIN_VALUE);
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+
+        void add(long now, boolean failed, boolean slowCall) {
+            long seen = epoch.get();
+            if (seen != now && epoch.compareAndSet(seen, now)) {
+                calls.reset();
+                failures.reset();
+                slow.reset();
+            }
+            calls.increment();
+            if (failed) failures.increment();
+            if (slowCall) slow.increment();
+        }
+
+        void clear() {
+            epoch.set(Long.MIN_VALUE);
+            calls.reset();
+            failures.reset();
+            slow.reset();
+        }
+    }
+}
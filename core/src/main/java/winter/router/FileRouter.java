@@ -1,5 +1,7 @@
 package winter.router;
 
+import winter.log.Log;
+
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -8,6 +10,8 @@ import java.util.List;
 import java.util.Map;
 
 public final class FileRouter {
+    public static final String MIDDLEWARE_FILE = "_middleware.java";
+
     private final Path routesDir;
 
     public FileRouter(Path routesDir) {
@@ -49,7 +53,7 @@ public final class FileRouter {
             if (last) {
                 Path exactFile = safeResolve(current, segment + ".java");
                 if (exactFile == null) return null;
-                if (Files.isRegularFile(exactFile))
+                if (Files.isRegularFile(exactFile) && !isMiddlewareFile(exactFile))
                     return new RouteMatch(exactFile, Map.copyOf(params));
             }
 
@@ -91,6 +95,11 @@ public final class FileRouter {
         return null;
     }
 
+    public static boolean isMiddlewareFile(Path file) {
+        Path name = file.getFileName();
+        return name != null && name.toString().equals(MIDDLEWARE_FILE);
+    }
+
     private boolean isWithinRoutes(Path path) {
         return path.startsWith(routesDir);
     }
@@ -125,7 +134,7 @@ public final class FileRouter {
                     .filter(p -> isDynamicDirName(p.getFileName().toString()))
                     .forEach(matches::add);
         } catch (java.io.IOException exception) {
-            System.err.println(
+            Log.warn(
                     "Failed to list routes directory: "
                             + directory
                             + " ("
@@ -133,7 +142,7 @@ public final class FileRouter {
                             + ")");
             return null;
         } catch (SecurityException exception) {
-            System.err.println(
+            Log.warn(
                     "Permission denied listing routes directory: "
                             + directory
                             + " ("
@@ -158,7 +167,7 @@ public final class FileRouter {
                     .filter(p -> isDynamicFileName(p.getFileName().toString()))
                     .forEach(matches::add);
         } catch (java.io.IOException exception) {
-            System.err.println(
+            Log.warn(
                     "Failed to list routes directory: "
                             + directory
                             + " ("
@@ -166,7 +175,7 @@ public final class FileRouter {
                             + ")");
             return null;
         } catch (SecurityException exception) {
-            System.err.println(
+            Log.warn(
                     "Permission denied listing routes directory: "
                             + directory
                             + " ("
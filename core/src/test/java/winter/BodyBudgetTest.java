@@ -0,0 +1,37 @@
+package winter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+final class BodyBudgetTest {
+
+    @Test
+    void rejectsWith503AfterWaitingWhenBudgetIsExhausted() {
+        var budget = new BodyBudget(100, Duration.ofMillis(50));
+        budget.acquire(80);
+
+        var error = assertThrows(HttpError.class, () -> budget.acquire(30));
+        assertEquals(503, error.status());
+        assertEquals("1", error.headers().get("Retry-After"));
+        assertEquals(1, budget.rejections());
+        assertEquals(80, budget.usedBytes());
+    }
+
+    @Test
+    void waitingRequestProceedsOnceBytesAreReleased() throws Exception {
+        var budget = new BodyBudget(100, Duration.ofSeconds(5));
+        budget.acquire(80);
+
+        var waiter = CompletableFuture.runAsync(() -> budget.acquire(50));
+        Thread.sleep(50);
+        assertFalse(waiter.isDone());
+
+        budget.release(80);
+        waiter.get();
+        assertEquals(50, budget.usedBytes());
+    }
+}
@@ -0,0 +1,41 @@
+package winter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+final class JsonLinesTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    public record Event(String type, int n) {}
+
+    @Test
+    void parsesEachLineIntoARecord() throws Exception {
+        String body = "{\"type\":\"a\",\"n\":1}\n\n{\"type\":\"b\",\"n\":2}\n";
+
+        try (var events = JsonLines.stream(JSON, JSON.createParser(body), Event.class)) {
+            assertEquals(List.of(new Event("a", 1), new Event("b", 2)), events.toList());
+        }
+    }
+
+    @Test
+    void malformedRecordReportsLineNumber() throws Exception {
+        String body = "{\"type\":\"a\",\"n\":1}\n{\"type\":\"b\",\"n\":2}\n{\"type\":\n";
+
+        try (var events = JsonLines.stream(JSON, JSON.createParser(body), Event.class)) {
+            var iterator = events.iterator();
+            assertEquals("a", iterator.next().type());
+            assertEquals("b", iterator.next().type());
+
+            var error = assertThrows(HttpError.class, iterator::next);
+            assertEquals(400, error.status());
+            assertEquals(3, ((Map<?, ?>) error.body()).get("line"));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package winter.capture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class TrafficCaptureTest {
+
+    @Test
+    void recordsRoundTripThroughTheFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("traffic.wcap");
+        try (var capture = TrafficCapture.open(CaptureConfig.of(file).withSampleRate(1))) {
+            assertTrue(capture.sample());
+            long start = System.nanoTime();
+            capture.record(
+                    start + 2_000_000,
+                    1_500_000,
+                    201,
+                    "POST",
+                    "/users?notify=é",
+                    List.of("Content-Type", "application/json"),
+                    "{\"name\":\"Ada\"}".getBytes(StandardCharsets.UTF_8),
+                    false);
+            capture.record(start + 3_000_000, 400_000, 200, "GET", "/", List.of(), null, true);
+        }
+
+        var read = readAll(file);
+        assertEquals(2, read.size());
+        var post = read.getFirst();
+        assertEquals("POST", post.method());
+        assertEquals("/users?notify=é", post.target());
+        assertEquals(201, post.status());
+        assertEquals(1_500, post.durationMicros());
+        assertEquals(List.of("Content-Type", "application/json"), post.headers());
+        assertEquals("{\"name\":\"Ada\"}", new String(post.body(), StandardCharsets.UTF_8));
+        assertFalse(post.bodyOmitted());
+        var get = read.get(1);
+        assertTrue(get.offsetMicros() > post.offsetMicros());
+        assertEquals(0, get.body().length);
+        assertTrue(get.bodyOmitted());
+    }
+
+    @Test
+    void truncatedTailEndsTheCapture(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("traffic.wcap");
+        try (var capture = TrafficCapture.open(CaptureConfig.of(file).withSampleRate(1))) {
+            for (int i = 0; i < 3; i++) {
+                capture.record(
+                        System.nanoTime(), 1_000, 200, "GET", "/" + i, List.of(), null, false);
+            }
+        }
+
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+        var targets = readAll(file).stream().map(CapturedRequest::target).toList();
+        assertEquals(List.of("/0", "/1"), targets);
+    }
+
+    @Test
+    void stopsWritingAtMaxFileBytes(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("traffic.wcap");
+        var config = CaptureConfig.of(file).withSampleRate(1).withLimits(1024, 200);
+        long written;
+        try (var capture = TrafficCapture.open(config)) {
+            for (int i = 0; i < 20; i++) {
+                while (capture.written() + capture.dropped() < i) Thread.onSpinWait();
+                capture.record(
+                        System.nanoTime(), 1_000, 200, "GET", "/" + i, List.of(), null, false);
+            }
+            while (capture.written() + capture.dropped() < 20) Thread.onSpinWait();
+            assertTrue(capture.dropped() > 0);
+            written = capture.written();
+        }
+        assertTrue(Files.size(file) <= 200);
+        assertEquals(written, readAll(file).size());
+    }
+
+    @Test
+    void readByOffsetRestoresArrivalOrder(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("traffic.wcap");
+        try (var capture = TrafficCapture.open(CaptureConfig.of(file).withSampleRate(1))) {
+            long start = System.nanoTime();
+            // Completion order: the slow request that arrived first is written last.
+            capture.record(start + 3_000_000, 1_000, 200, "GET", "/b", List.of(), null, false);
+            capture.record(start + 5_000_000, 1_000, 200, "GET", "/c", List.of(), null, false);
+            capture.record(start + 1_000_000, 9_000, 200, "GET", "/a", List.of(), null, false);
+        }
+
+        assertEquals(
+                List.of("/b", "/c", "/a"),
+                readAll(file).stream().map(CapturedRequest::target).toList());
+        var sorted = CaptureFile.readByOffset(file);
+        assertEquals(
+                List.of("/a", "/b", "/c"), sorted.stream().map(CapturedRequest::target).toList());
+        assertEquals(2_000, sorted.get(1).offsetMicros() - sorted.getFirst().offsetMicros());
+    }
+
+    @Test
+    void rejectsOtherFiles(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("not-a-capture");
+        Files.writeString(file, "hello world");
+        assertThrows(IOException.class, () -> CaptureFile.open(file));
+    }
+
+    private static List<CapturedRequest> readAll(Path file) throws Exception {
+        var out = new ArrayList<CapturedRequest>();
+        try (var reader = CaptureFile.open(file)) {
+            assertTrue(reader.startEpochMillis() > 0);
+            for (var request = reader.next(); request != null; request = reader.next()) {
+                out.add(request);
+            }
+        }
+        return out;
+    }
+}
@@ -5,11 +5,24 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import winter.middleware.Middleware;
+
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
 
 final class RouteCompilerTest {
 
+    private static final String MIDDLEWARE =
+            """
+            import winter.Ctx;
+            import winter.middleware.Middleware;
+            public class Route implements Middleware {
+              public Object before(Ctx ctx) { return null; }
+            }
+            """;
+
     @Test
     void invalidateForcesReload(@TempDir Path tempDir) throws Exception {
         Path route = tempDir.resolve("index.java");
@@ -29,4 +42,75 @@ final class RouteCompilerTest {
 
         assertNotSame(first, second);
     }
+
+    @Test
+    void chainAppliesMiddlewareFilesFromRootDown(@TempDir Path tempDir) throws Exception {
+        Path admin = tempDir.resolve("admin");
+        Files.createDirectories(admin);
+        Files.writeString(tempDir.resolve("_middleware.java"), MIDDLEWARE);
+        Files.writeString(admin.resolve("_middleware.java"), MIDDLEWARE);
+        Path route = admin.resolve("index.java");
+        Files.writeString(
+                route,
+                """
+                import winter.Ctx;
+                public class Route {
+                  public Object get(Ctx ctx) { return "ok"; }
+                }
+                """);
+
+        var compiler = new RouteCompiler(tempDir, List.of(new Middleware() {}));
+        RouteHandle handle = compiler.load(route);
+        var chain = compiler.chain(route, handle);
+        assertEquals(3, chain.size());
+        assertSame(chain, compiler.chain(route, handle));
+
+        compiler.invalidate(admin.resolve("_middleware.java"));
+        assertNotSame(chain, compiler.chain(route, handle));
+
+        Path top = tempDir.resolve("index.java");
+        Files.writeString(top, "public class Route {}");
+        assertEquals(2, compiler.chain(top, compiler.load(top)).size());
+    }
+
+    @Test
+    void chainNoticesMiddlewareFileChangesWithoutTheWatcher(@TempDir Path tempDir)
+            throws Exception {
+        Path route = tempDir.resolve("index.java");
+        Files.writeString(route, "public class Route {}");
+        var compiler = new RouteCompiler(tempDir, List.of());
+        RouteHandle handle = compiler.load(route);
+        assertEquals(0, compiler.chain(route, handle).size());
+
+        Path middleware = tempDir.resolve("_middleware.java");
+        Files.writeString(middleware, MIDDLEWARE);
+        var chain = compiler.chain(route, handle);
+        assertEquals(1, chain.size());
+
+        long modified = Files.getLastModifiedTime(middleware).toMillis();
+        Files.setLastModifiedTime(middleware, FileTime.fromMillis(modified + 2_000));
+        assertNotSame(chain, compiler.chain(route, handle));
+
+        Files.delete(middleware);
+        assertEquals(0, compiler.chain(route, handle).size());
+    }
+
+    @Test
+    void watchedChainIsReusedUntilTheMiddlewareIsInvalidated(@TempDir Path tempDir)
+            throws Exception {
+        Path route = tempDir.resolve("index.java");
+        Files.writeString(route, "public class Route {}");
+        var compiler = new RouteCompiler(tempDir, List.of());
+        compiler.watched(true);
+        RouteHandle handle = compiler.load(route);
+        var chain = compiler.chain(route, handle);
+        assertEquals(0, chain.size());
+
+        // The watcher reports the new file; until then the cached chain is not re-checked.
+        Path middleware = tempDir.resolve("_middleware.java");
+        Files.writeString(middleware, MIDDLEWARE);
+        assertSame(chain, compiler.chain(route, handle));
+        compiler.invalidate(middleware);
+        assertEquals(1, compiler.chain(route, handle).size());
+    }
 }
@@ -0,0 +1,72 @@
+package winter.deadline;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class TimingWheelTest {
+
+    @Test
+    void firesAcrossLevelsAndSkipsCancelled() throws Exception {
+        try (var wheel = new TimingWheel(Duration.ofMillis(1), "test-wheel")) {
+            long start = System.nanoTime();
+            var near = new CountDownLatch(1);
+            var far = new CountDownLatch(1);
+            var farFiredAt = new AtomicLong();
+            var cancelledRan = new AtomicBoolean();
+
+            wheel.schedule(start + TimeUnit.MILLISECONDS.toNanos(5), near::countDown);
+            wheel.schedule(
+                    start + TimeUnit.MILLISECONDS.toNanos(150),
+                    () -> {
+                        farFiredAt.set(System.nanoTime());
+                        far.countDown();
+                    });
+            var cancelled =
+                    wheel.schedule(
+                            start + TimeUnit.MILLISECONDS.toNanos(20),
+                            () -> cancelledRan.set(true));
+            assertTrue(cancelled.cancel());
+
+            assertTrue(near.await(1, TimeUnit.SECONDS));
+            assertTrue(far.await(2, TimeUnit.SECONDS));
+            assertTrue(farFiredAt.get() - start >= TimeUnit.MILLISECONDS.toNanos(150));
+            assertFalse(cancelledRan.get());
+        }
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextTick() throws Exception {
+        try (var wheel = new TimingWheel(Duration.ofMillis(10), "test-wheel")) {
+            var fired = new CountDownLatch(1);
+            var timer = wheel.schedule(System.nanoTime() - 1, fired::countDown);
+
+            assertTrue(fired.await(1, TimeUnit.SECONDS));
+            assertFalse(timer.cancel());
+        }
+    }
+
+    @Test
+    void cancelledTimersAreUnlinkedBeforeTheirDeadline() throws Exception {
+        try (var wheel = new TimingWheel(Duration.ofMillis(1), "test-wheel")) {
+            long far = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            var keep = wheel.schedule(far, () -> {});
+            var timers = new ArrayList<TimingWheel.Timer>();
+            for (int i = 0; i < 1_000; i++) timers.add(wheel.schedule(far + i, () -> {}));
+            for (int i = 0; i < 200 && wheel.armed() < 1_001; i++) Thread.sleep(5);
+            assertEquals(1_001, wheel.armed());
+
+            for (var timer : timers) assertTrue(timer.cancel());
+            for (int i = 0; i < 200 && wheel.armed() > 1; i++) Thread.sleep(5);
+            assertEquals(1, wheel.armed());
+            assertTrue(keep.cancel());
+        }
+    }
+}
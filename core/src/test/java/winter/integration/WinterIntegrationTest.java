@@ -14,16 +14,24 @@ import winter.Res;
 import winter.Winter;
 import winter.WinterConfig;
 import winter.WinterServer;
+import winter.capture.CaptureConfig;
+import winter.capture.CaptureFile;
+import winter.capture.CapturedRequest;
+import winter.limit.ConcurrencyConfig;
 import winter.middleware.Middleware;
+import winter.resilience.BulkheadConfig;
 
 import java.net.ServerSocket;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.FileTime;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 final class WinterIntegrationTest {
@@ -168,6 +176,43 @@ final class WinterIntegrationTest {
         }
     }
 
+    @Test
+    void headerViewsAreCaseInsensitive(@TempDir Path tempDir) throws Exception {
+        Path routes = tempDir.resolve("routes");
+        Files.createDirectories(routes);
+        writeRoute(
+                routes.resolve("index.java"),
+                """
+            import winter.Ctx;
+            import java.util.Map;
+            public class Route {
+              public Object get(Ctx ctx) {
+                return Map.of(
+                    "first", ctx.header("x-test"),
+                    "view", ctx.headers().get("X-TEST"),
+                    "cookies", ctx.cookies());
+              }
+            }
+            """);
+
+        try (var running = start(routes)) {
+            var response =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/"))
+                                    .header("X-Test", "a")
+                                    .header("Cookie", "session=s1")
+                                    .GET()
+                                    .build(),
+                            BodyHandlers.ofString());
+
+            assertEquals(200, response.statusCode());
+            Map<?, ?> body = JSON.readValue(response.body(), Map.class);
+            assertEquals("a", body.get("first"));
+            assertEquals(java.util.List.of("a"), body.get("view"));
+            assertEquals(Map.of("session", "s1"), body.get("cookies"));
+        }
+    }
+
     @Test
     void bodyLimitAndInvalidJsonHandled(@TempDir Path tempDir) throws Exception {
         Path routes = tempDir.resolve("routes");
@@ -212,6 +257,91 @@ final class WinterIntegrationTest {
         }
     }
 
+    @Test
+    void streamingBodyEnforcesLimitAndParsesJson(@TempDir Path tempDir) throws Exception {
+        Path routes = tempDir.resolve("routes");
+        Files.createDirectories(routes);
+        writeRoute(
+                routes.resolve("count.java"),
+                """
+            import winter.Ctx;
+            import java.util.Map;
+            public class Route {
+              public Object post(Ctx ctx) throws Exception {
+                try (var in = ctx.bodyStream()) {
+                  return Map.of("len", in.readAllBytes().length);
+                }
+              }
+            }
+            """);
+        writeRoute(
+                routes.resolve("tree.java"),
+                """
+            import winter.Ctx;
+            import java.util.Map;
+            public class Route {
+              public Object post(Ctx ctx) {
+                ctx.body(Map.class);
+                return Map.of("name", ctx.bodyTree().path("name").asText());
+              }
+            }
+            """);
+
+        try (var running = start(routes, config -> config.withMaxBodyBytes(16))) {
+            var tooBig =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/count"))
+                                    .POST(
+                                            BodyPublishers.ofInputStream(
+                                                    () ->
+                                                            new java.io.ByteArrayInputStream(
+                                                                    new byte[64])))
+                                    .build(),
+                            BodyHandlers.ofString());
+            assertEquals(413, tooBig.statusCode());
+
+            var tree =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/tree"))
+                                    .POST(BodyPublishers.ofString("{\"name\":\"ada\"}"))
+                                    .header("Content-Type", "application/json")
+                                    .build(),
+                            BodyHandlers.ofString());
+            assertEquals(200, tree.statusCode());
+            assertEquals("ada", JSON.readValue(tree.body(), Map.class).get("name"));
+        }
+    }
+
+    @Test
+    void bodyBudgetCountsChunkedBytesAsRead(@TempDir Path tempDir) throws Exception {
+        Path routes = tempDir.resolve("routes");
+        writeRoute(
+                routes.resolve("echo.java"),
+                """
+            import winter.Ctx;
+            public class Route {
+              public Object post(Ctx ctx) { return ctx.bodyText(); }
+            }
+            """);
+
+        try (var running =
+                start(routes, config -> config.withBodyBudget(1024, Duration.ofMillis(50)))) {
+            var chunked =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/echo"))
+                                    .POST(
+                                            BodyPublishers.ofInputStream(
+                                                    () ->
+                                                            new java.io.ByteArrayInputStream(
+                                                                    "hello".getBytes())))
+                                    .build(),
+                            BodyHandlers.ofString());
+            assertEquals(200, chunked.statusCode());
+            assertEquals("hello", chunked.body());
+            assertEquals(0, running.server.bodyBudget().rejections());
+        }
+    }
+
     @Test
     void middlewareCanShortCircuitOptionsAndAddHeaders(@TempDir Path tempDir) throws Exception {
         Path routes = tempDir.resolve("routes");
@@ -260,6 +390,425 @@ final class WinterIntegrationTest {
         }
     }
 
+    @Test
+    void etagAnswersIfNoneMatchWith304(@TempDir Path tempDir) throws Exception {
+        Path routes = tempDir.resolve("routes");
+        Files.createDirectories(routes);
+        writeRoute(
+                routes.resolve("index.java"),
+                """
+            import winter.Ctx;
+            import java.util.Map;
+            public class Route {
+              public Object get(Ctx ctx) { return Map.of("ok", true); }
+            }
+            """);
+        writeRoute(
+                routes.resolve("versioned.java"),
+                """
+            import winter.Ctx;
+            public class Route {
+              public Object get(Ctx ctx) {
+                ctx.etag("v1");
+                throw new IllegalStateException("handler should be skipped");
+              }
+            }
+            """);
+
+        try (var running = start(routes)) {
+            var first =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/")).GET().build(),
+                            BodyHandlers.ofString());
+            assertEquals(200, first.statusCode());
+            String etag = first.headers().firstValue("ETag").orElse(null);
+            assertNotNull(etag);
+
+            var second =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/"))
+                                    .header("If-None-Match", etag)
+                                    .GET()
+                                    .build(),
+                            BodyHandlers.ofString());
+            assertEquals(304, second.statusCode());
+            assertTrue(second.body().isEmpty());
+            assertEquals(etag, second.headers().firstValue("ETag").orElse(null));
+
+            var versioned =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/versioned"))
+                                    .header("If-None-Match", "\"v1\"")
+                                    .GET()
+                                    .build(),
+                            BodyHandlers.ofString());
+            assertEquals(304, versioned.statusCode());
+            assertEquals("\"v1\"", versioned.headers().firstValue("ETag").orElse(null));
+        }
+    }
+
+    @Test
+    void responseCacheServesPublicResponsesUntilBypassed(@TempDir Path tempDir) throws Exception {
+        Path routes = tempDir.resolve("routes");
+        Files.createDirectories(routes);
+        writeRoute(
+                routes.resolve("index.java"),
+                """
+            import winter.Ctx;
+            import winter.Res;
+            import java.time.Duration;
+            import java.util.Map;
+            import java.util.concurrent.atomic.AtomicInteger;
+            public class Route {
+              static final AtomicInteger CALLS = new AtomicInteger();
+              public Object get(Ctx ctx) {
+                return Res.of(200, Map.of("calls", CALLS.incrementAndGet()))
+                    .cache(Duration.ofSeconds(60));
+              }
+            }
+            """);
+
+        try (var running = start(routes, config -> config.withResponseCache(1024 * 1024))) {
+            assertEquals(1, JSON.readValue(get(running, "/"), Map.class).get("calls"));
+            assertEquals(1, JSON.readValue(get(running, "/"), Map.class).get("calls"));
+
+            var bypass =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/"))
+                                    .header("Cache-Control", "no-cache")
+                                    .GET()
+                                    .build(),
+                            BodyHandlers.ofString());
+            assertEquals(2, JSON.readValue(bypass.body(), Map.class).get("calls"));
+            assertEquals(2, JSON.readValue(get(running, "/"), Map.class).get("calls"));
+
+            var withCookie =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/"))
+                                    .header("Cookie", "session=abc")
+                                    .GET()
+                                    .build(),
+                            BodyHandlers.ofString());
+            assertEquals(3, JSON.readValue(withCookie.body(), Map.class).get("calls"));
+            assertEquals(2, JSON.readValue(get(running, "/"), Map.class).get("calls"));
+        }
+    }
+
+    @Test
+    void deadlineInterruptsRouteAndAnswers504(@TempDir Path tempDir) throws Exception {
+        Path routes = tempDir.resolve("routes");
+        writeRoute(
+                routes.resolve("slow.java"),
+                """
+            import winter.Ctx;
+            import winter.deadline.Timeout;
+            @Timeout(millis = 100)
+            public class Route {
+              public Object get(Ctx ctx) throws Exception {
+                if (ctx.deadline() == null) return "no deadline";
+                Thread.sleep(10_000);
+                return "too late";
+              }
+            }
+            """);
+        writeRoute(
+                routes.resolve("fast.java"),
+                """
+            import winter.Ctx;
+            public class Route {
+              public Object get(Ctx ctx) {
+                return ctx.deadline() == null ? "none" : "bounded";
+              }
+            }
+            """);
+
+        try (var running =
+                start(routes, config -> config.withDeadlineHeader("X-Request-Timeout"))) {
+            long start = System.nanoTime();
+            var slow =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/slow")).GET().build(),
+                            BodyHandlers.ofString());
+            assertEquals(504, slow.statusCode());
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5_000);
+
+            assertEquals("none", get(running, "/fast"));
+            var bounded =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/fast"))
+                                    .header("X-Request-Timeout", "1000")
+                                    .GET()
+                                    .build(),
+                            BodyHandlers.ofString());
+            assertEquals("bounded", bounded.body());
+
+            var huge =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/fast"))
+                                    .header("X-Request-Timeout", Long.toString(Long.MAX_VALUE))
+                                    .GET()
+                                    .build(),
+                            BodyHandlers.ofString());
+            assertEquals(200, huge.statusCode());
+            assertEquals("bounded", huge.body());
+        }
+    }
+
+    @Test
+    void concurrencyLimitShedsBeforeDispatchButNotInternalEndpoints(@TempDir Path tempDir)
+            throws Exception {
+        Path routes = tempDir.resolve("routes");
+        writeRoute(
+                routes.resolve("slow.java"),
+                """
+            import winter.Ctx;
+            public class Route {
+              public Object get(Ctx ctx) throws Exception {
+                Thread.sleep(500);
+                return "done";
+              }
+            }
+            """);
+
+        var oneAtATime = ConcurrencyConfig.defaults().withLimits(1, 1, 1);
+        try (var running =
+                start(
+                        routes,
+                        config ->
+                                config.withMetricsPath("/metrics")
+                                        .withConcurrencyLimit(oneAtATime))) {
+            var slow =
+                    running.client.sendAsync(
+                            HttpRequest.newBuilder(running.base.resolve("/slow")).GET().build(),
+                            BodyHandlers.ofString());
+            var limiter = running.server().concurrencyLimiter();
+            for (int i = 0; i < 400 && limiter.inflight() == 0; i++) Thread.sleep(5);
+
+            var shed =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/slow")).GET().build(),
+                            BodyHandlers.ofString());
+            assertEquals(503, shed.statusCode());
+            assertEquals("1", shed.headers().firstValue("Retry-After").orElse(null));
+            assertTrue(get(running, "/metrics").contains("winter_"));
+
+            assertEquals("done", slow.get().body());
+            assertEquals(1, limiter.shed());
+            for (int i = 0; i < 400 && limiter.inflight() > 0; i++) Thread.sleep(5);
+            assertEquals(0, limiter.inflight());
+        }
+    }
+
+    @Test
+    void unknownIsolatedBulkheadFailsLikeAnyRouteError(@TempDir Path tempDir) throws Exception {
+        Path routes = tempDir.resolve("routes");
+        writeRoute(
+                routes.resolve("typo.java"),
+                """
+            import winter.Ctx;
+            import winter.resilience.Isolated;
+            @Isolated("reprots")
+            public class Route {
+              public Object get(Ctx ctx) { return "ran"; }
+            }
+            """);
+        var onError = new java.util.concurrent.atomic.AtomicInteger();
+        Middleware counting =
+                new Middleware() {
+                    @Override
+                    public Object onError(winter.Ctx ctx, Exception exception)
+                            throws Exception {
+                        onError.incrementAndGet();
+                        throw exception;
+                    }
+                };
+
+        try (var running =
+                start(
+                        routes,
+                        config -> config.withBulkheads(List.of(BulkheadConfig.of("reports", 1, 1))),
+                        counting)) {
+            var response =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/typo")).GET().build(),
+                            BodyHandlers.ofString());
+            assertEquals(500, response.statusCode());
+            assertEquals(
+                    "Internal Server Error",
+                    JSON.readValue(response.body(), Map.class).get("error"));
+            assertEquals(1, onError.get());
+        }
+    }
+
+    @Test
+    void closeDrainsInFlightRequestsAndFailsReadiness(@TempDir Path tempDir) throws Exception {
+        Path routes = tempDir.resolve("routes");
+        writeRoute(
+                routes.resolve("slow.java"),
+                """
+            import winter.Ctx;
+            public class Route {
+              public Object get(Ctx ctx) throws Exception {
+                Thread.sleep(500);
+                return "done";
+              }
+            }
+            """);
+
+        var running = start(routes, config -> config.withReadinessPath("/ready"));
+        assertEquals("ready", JSON.readValue(get(running, "/ready"), Map.class).get("status"));
+
+        var slow =
+                running.client.sendAsync(
+                        HttpRequest.newBuilder(running.base.resolve("/slow")).GET().build(),
+                        BodyHandlers.ofString());
+        for (int i = 0; i < 400 && running.server().inflight() == 0; i++) Thread.sleep(5);
+
+        running.close();
+
+        assertFalse(running.server().isReady());
+        assertEquals(0, running.server().inflight());
+        assertEquals(200, slow.get().statusCode());
+        assertEquals("done", slow.get().body());
+    }
+
+    @Test
+    void reportsPhaseTimingsAndKeepsSlowRequests(@TempDir Path tempDir) throws Exception {
+        Path routes = tempDir.resolve("routes");
+        writeRoute(
+                routes.resolve("slow.java"),
+                """
+            import winter.Ctx;
+            public class Route {
+              public Object get(Ctx ctx) throws Exception {
+                Thread.sleep(50);
+                return "done";
+              }
+            }
+            """);
+
+        try (var running =
+                start(
+                        routes,
+                        config ->
+                                config.withServerTiming(true)
+                                        .withSlowRequests(Duration.ofMillis(20), "/_slow"))) {
+            var response =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/slow")).GET().build(),
+                            BodyHandlers.ofString());
+            String timing = response.headers().firstValue("Server-Timing").orElse("");
+            assertTrue(timing.contains("handler;dur="), timing);
+            assertTrue(timing.contains("load;dur="), timing);
+
+            List<?> slow = List.of();
+            for (int i = 0; i < 100 && slow.isEmpty(); i++) {
+                slow = JSON.readValue(get(running, "/_slow"), List.class);
+                if (slow.isEmpty()) Thread.sleep(10);
+            }
+            assertEquals(1, slow.size());
+            var entry = (Map<?, ?>) slow.getFirst();
+            assertEquals("slow.java", entry.get("route"));
+            assertEquals(200, entry.get("status"));
+        }
+    }
+
+    @Test
+    void capturesSampledRequestsWithBodies(@TempDir Path tempDir) throws Exception {
+        Path routes = tempDir.resolve("routes");
+        writeRoute(
+                routes.resolve("echo.java"),
+                """
+            import winter.Ctx;
+            public class Route {
+              public Object get(Ctx ctx) { return ctx.query("q"); }
+              public Object post(Ctx ctx) { return ctx.bodyText(); }
+            }
+            """);
+        Path file = tempDir.resolve("traffic.wcap");
+
+        try (var running =
+                start(
+                        routes,
+                        config -> config.withCapture(CaptureConfig.of(file).withSampleRate(1)))) {
+            var post =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/echo"))
+                                    .header("Content-Type", "text/plain")
+                                    .header("Authorization", "Bearer secret")
+                                    .POST(BodyPublishers.ofString("hello"))
+                                    .build(),
+                            BodyHandlers.ofString());
+            assertEquals("hello", post.body());
+            assertEquals("x", get(running, "/echo?q=x"));
+            assertEquals("y", get(running, "/ech%6F?q=y"));
+        }
+
+        var captured = new ArrayList<CapturedRequest>();
+        try (var reader = CaptureFile.open(file)) {
+            for (var request = reader.next(); request != null; request = reader.next()) {
+                captured.add(request);
+            }
+        }
+        assertEquals(3, captured.size());
+        var first = captured.getFirst();
+        assertEquals("POST", first.method());
+        assertEquals("/echo", first.target());
+        assertEquals(200, first.status());
+        assertEquals("hello", new String(first.body(), StandardCharsets.UTF_8));
+        assertEquals(List.of("Content-Type", "text/plain"), first.headers());
+        assertEquals("/echo?q=x", captured.get(1).target());
+        // Recorded as sent, not as the decoded path the route matched.
+        assertEquals("/ech%6F?q=y", captured.get(2).target());
+    }
+
+    @Test
+    void capturedBodyReadFailuresKeepTheirStatus(@TempDir Path tempDir) throws Exception {
+        Path routes = tempDir.resolve("routes");
+        writeRoute(
+                routes.resolve("echo.java"),
+                """
+            import winter.Ctx;
+            public class Route {
+              public Object post(Ctx ctx) throws Exception {
+                String body = ctx.bodyText();
+                if (ctx.query("hold") != null) Thread.sleep(1_000);
+                return body;
+              }
+            }
+            """);
+        Path file = tempDir.resolve("traffic.wcap");
+
+        try (var running =
+                start(
+                        routes,
+                        config ->
+                                config.withCapture(CaptureConfig.of(file).withSampleRate(1))
+                                        .withBodyBudget(4, Duration.ofMillis(50)))) {
+            var held =
+                    running.client.sendAsync(
+                            HttpRequest.newBuilder(running.base.resolve("/echo?hold=1"))
+                                    .POST(BodyPublishers.ofString("first"))
+                                    .build(),
+                            BodyHandlers.ofString());
+            for (int i = 0; i < 200 && running.server.bodyBudget().usedBytes() == 0; i++) {
+                Thread.sleep(5);
+            }
+            assertTrue(running.server.bodyBudget().usedBytes() > 0);
+
+            // The capture's read is rejected by the body budget; the route sees that 503, not
+            // an already-consumed body.
+            var rejected =
+                    running.client.send(
+                            HttpRequest.newBuilder(running.base.resolve("/echo"))
+                                    .POST(BodyPublishers.ofString("second"))
+                                    .build(),
+                            BodyHandlers.ofString());
+            assertEquals(503, rejected.statusCode());
+            assertEquals("first", held.join().body());
+        }
+    }
+
     @Test
     void hotReloadUpdatesChangedRoute(@TempDir Path tempDir) throws Exception {
         Path routes = tempDir.resolve("routes");
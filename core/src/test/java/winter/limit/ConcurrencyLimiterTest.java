@@ -0,0 +1,58 @@
+package winter.limit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import winter.limit.ConcurrencyLimiter.Lane;
+
+import java.util.List;
+
+final class ConcurrencyLimiterTest {
+
+    @Test
+    void shedsBeyondLimitButNeverCriticalLane() {
+        var limiter =
+                new ConcurrencyLimiter(
+                        ConcurrencyConfig.defaults()
+                                .withLimits(4, 4, 4)
+                                .withLowPriorityPaths(List.of("/reports")));
+
+        assertEquals(Lane.CRITICAL, limiter.lane("/health"));
+        assertEquals(Lane.NORMAL, limiter.lane("/healthcheck"));
+        assertEquals(Lane.LOW, limiter.lane("/reports/daily"));
+
+        assertTrue(limiter.tryAcquire(Lane.NORMAL));
+        assertTrue(limiter.tryAcquire(Lane.NORMAL));
+        assertTrue(limiter.tryAcquire(Lane.NORMAL));
+        assertFalse(limiter.tryAcquire(Lane.LOW));
+        assertTrue(limiter.tryAcquire(Lane.NORMAL));
+        assertFalse(limiter.tryAcquire(Lane.NORMAL));
+        assertTrue(limiter.tryAcquire(Lane.CRITICAL));
+
+        assertEquals(4, limiter.inflight());
+        assertEquals(1, limiter.shed(Lane.LOW));
+        assertEquals(2, limiter.shed());
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRisesAboveBaseline() throws Exception {
+        var limiter = new ConcurrencyLimiter(ConcurrencyConfig.defaults().withLimits(64, 8, 256));
+
+        window(limiter, 1_000_000L);
+        int baseline = limiter.limit();
+        window(limiter, 20_000_000L);
+
+        assertTrue(limiter.limit() < baseline, "limit " + limiter.limit() + " vs " + baseline);
+        assertTrue(limiter.limit() >= 8);
+        assertEquals(0, limiter.inflight());
+    }
+
+    private static void window(ConcurrencyLimiter limiter, long rttNanos) throws Exception {
+        Thread.sleep(110);
+        for (int i = 0; i < 32; i++) {
+            assertTrue(limiter.tryAcquire(Lane.NORMAL));
+            limiter.release(Lane.NORMAL, rttNanos);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package winter.limit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+final class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        var limiter = new RateLimiter(RateLimit.perClientIp("/api", 2, 3));
+        long now = 42 * SECOND;
+
+        assertEquals(0, limiter.tryAcquire("a", now));
+        assertEquals(0, limiter.tryAcquire("a", now));
+        assertEquals(0, limiter.tryAcquire("a", now));
+        long wait = limiter.tryAcquire("a", now);
+        assertEquals(SECOND / 2, wait);
+        assertEquals(0, limiter.tryAcquire("b", now));
+
+        assertEquals(0, limiter.tryAcquire("a", now + wait));
+        assertTrue(limiter.tryAcquire("a", now + wait) > 0);
+        assertEquals(2, limiter.rejected());
+    }
+
+    @Test
+    void evictsIdleKeysToStayBounded() {
+        var limiter = new RateLimiter(RateLimit.perClientIp(null, 1, 1).withMaxKeys(64));
+        long now = 0;
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("client-" + i, now);
+            now += SECOND / 100;
+        }
+
+        assertTrue(limiter.trackedKeys() <= 64, "tracked " + limiter.trackedKeys());
+    }
+
+    @Test
+    void fullStripeIsNotRescannedUntilAKeyCanBeIdle() {
+        // 64 keys over 64 stripes leaves room for one key per stripe.
+        var limiter = new RateLimiter(RateLimit.perClientIp(null, 1, 1).withMaxKeys(64));
+        String[] keys = sameStripe(3);
+
+        assertEquals(0, limiter.tryAcquire(keys[0], 0));
+        // The stripe is full of an active key, so newcomers share the overflow bucket.
+        assertEquals(0, limiter.tryAcquire(keys[1], SECOND / 2));
+        assertTrue(limiter.tryAcquire(keys[2], SECOND / 2) > 0);
+        // keys[0] is idle from 1s, but the scan at 0.5s put the next one off to 1.5s.
+        assertTrue(limiter.tryAcquire(keys[2], SECOND + SECOND / 5) > 0);
+        assertEquals(0, limiter.tryAcquire(keys[2], 2 * SECOND));
+        assertEquals(1, limiter.trackedKeys());
+    }
+
+    @Test
+    void prefixMatchesWholeSegments() {
+        var rule = RateLimit.perHeader("/api", "X-Api-Key", 10, 0);
+
+        assertEquals(10, rule.burst());
+        assertTrue(rule.matches("/api"));
+        assertTrue(rule.matches("/api/users"));
+        assertFalse(rule.matches("/apis"));
+        assertThrows(
+                IllegalArgumentException.class, () -> RateLimit.perHeader("/api", null, 10, 0));
+    }
+
+    private static String[] sameStripe(int count) {
+        var out = new String[count];
+        int found = 0;
+        for (int i = 0; found < count; i++) {
+            int hash = ("key-" + i).hashCode();
+            if (((hash ^ (hash >>> 16)) & 63) == 0) out[found++] = "key-" + i;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,126 @@
+package winter.log;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+final class AccessLogTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Test
+    void writesJsonLinesAcrossRotatedFiles(@TempDir Path dir) throws Exception {
+        var config = AccessLogConfig.of(dir).withRotation(4096, 3).withBuffer(64, 256);
+        try (var log = AccessLog.open(config)) {
+            for (int i = 0; i < 200; i++) {
+                while (log.written() + log.dropped() < i) Thread.onSpinWait();
+                log.request("GET", "/users/" + i, "users/[id].java", "127.0.0.1", 200, 1_500, 42);
+            }
+            log.message("warn", "quote \" and newline \n and é");
+        }
+
+        List<Path> files;
+        try (var list = Files.list(dir)) {
+            files = list.sorted().toList();
+        }
+        assertEquals(3, files.size(), files.toString());
+
+        var records = new ArrayList<Map<?, ?>>();
+        for (Path file : files) {
+            for (String line : Files.readAllLines(file)) {
+                records.add(JSON.readValue(line, Map.class));
+            }
+        }
+        var last = records.getLast();
+        assertEquals("log", last.get("type"));
+        assertEquals("quote \" and newline \n and é", last.get("msg"));
+        var access = records.getFirst();
+        assertEquals("access", access.get("type"));
+        assertEquals("users/[id].java", access.get("route"));
+        assertEquals(1, access.get("us"));
+        assertEquals(200, access.get("status"));
+    }
+
+    @Test
+    void openingTrimsThePaddingACrashLeftBehind(@TempDir Path dir) throws Exception {
+        String line = "{\"type\":\"log\",\"msg\":\"before the crash\"}\n";
+        byte[] record = line.getBytes(StandardCharsets.UTF_8);
+        byte[] padded = Arrays.copyOf(record, 200_000);
+        Files.write(dir.resolve("access-000001.log"), padded);
+
+        try (var log = AccessLog.open(AccessLogConfig.of(dir))) {
+            log.message("info", "after");
+        }
+
+        assertArrayEquals(record, Files.readAllBytes(dir.resolve("access-000001.log")));
+        var next = Files.readAllLines(dir.resolve("access-000002.log"));
+        assertEquals("after", JSON.readValue(next.getFirst(), Map.class).get("msg"));
+    }
+
+    @Test
+    void truncatedRecordsStayValidJson(@TempDir Path dir) throws Exception {
+        try (var log = AccessLog.open(AccessLogConfig.of(dir).withBuffer(8, 128))) {
+            log.request("GET", "/" + "x".repeat(500), "big.java", "::1", 200, 1_000, 0);
+        }
+
+        String line;
+        try (var list = Files.list(dir)) {
+            line = Files.readAllLines(list.findFirst().orElseThrow()).getFirst();
+        }
+        assertTrue(line.length() <= 128, line);
+        Map<?, ?> record = JSON.readValue(line, Map.class);
+        assertEquals(true, record.get("truncated"));
+        assertFalse(record.containsKey("route"));
+    }
+
+    @Test
+    void ringDropsInsteadOfBlockingWhenFull() {
+        var ring = new LogRing(4, 128);
+        for (int i = 0; i < 4; i++) {
+            long seq = ring.claim();
+            assertEquals(i, seq);
+            ring.publish(seq, 1);
+        }
+        assertEquals(-1, ring.claim());
+        assertEquals(1, ring.dropped());
+
+        assertEquals(4, ring.drain((data, offset, length) -> {}));
+        assertEquals(4, ring.claim());
+    }
+
+    @Test
+    void errorTracesStayWholeOnStderrWhileTheLogIsInstalled(@TempDir Path dir) throws Exception {
+        var stderr = new ByteArrayOutputStream();
+        PrintStream original = System.err;
+        try (var log = AccessLog.open(AccessLogConfig.of(dir).withBuffer(8, 128))) {
+            System.setErr(new PrintStream(stderr, true, StandardCharsets.UTF_8));
+            Log.install(log);
+            Log.error("Route failed: GET /boom", new IllegalStateException("boom"));
+        } finally {
+            Log.uninstall(null);
+            System.setErr(original);
+        }
+
+        String trace = stderr.toString(StandardCharsets.UTF_8);
+        assertTrue(trace.contains("java.lang.IllegalStateException: boom"), trace);
+        assertTrue(trace.contains("errorTracesStayWholeOnStderrWhileTheLogIsInstalled"), trace);
+        String line;
+        try (var list = Files.list(dir)) {
+            line = Files.readAllLines(list.findFirst().orElseThrow()).getFirst();
+        }
+        assertEquals("error", JSON.readValue(line, Map.class).get("level"));
+    }
+}
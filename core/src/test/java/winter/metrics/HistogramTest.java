@@ -0,0 +1,40 @@
+package winter.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+final class HistogramTest {
+
+    @Test
+    void bucketsBoundRelativeErrorToAQuarter() {
+        for (long nanos = 1_024; nanos < 1L << 40; nanos = nanos * 3 / 2 + 7) {
+            int bucket = Histogram.bucket(nanos);
+            long upper = Histogram.upperBound(bucket);
+            assertTrue(nanos < upper, nanos + " >= " + upper);
+            assertTrue(upper - nanos <= nanos / 4 + 1, nanos + " -> " + upper);
+            if (bucket > 1) assertTrue(nanos >= Histogram.upperBound(bucket - 1));
+        }
+        assertEquals(0, Histogram.bucket(0));
+        assertEquals(Histogram.BUCKETS - 1, Histogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    void snapshotReportsQuantilesAndCumulativeCounts() {
+        var histogram = new Histogram();
+        for (int i = 0; i < 90; i++) histogram.record(1_000_000);
+        for (int i = 0; i < 10; i++) histogram.record(100_000_000);
+
+        var snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.count());
+        assertEquals(90 * 1_000_000L + 10 * 100_000_000L, snapshot.sumNanos());
+
+        long p50 = snapshot.valueAt(0.5);
+        assertTrue(p50 > 1_000_000 && p50 <= 1_250_000, "p50 " + p50);
+        long p99 = snapshot.valueAt(0.99);
+        assertTrue(p99 > 100_000_000 && p99 <= 125_000_000, "p99 " + p99);
+
+        assertEquals(90, snapshot.countAtOrBelow(50_000_000));
+        assertEquals(100, snapshot.countAtOrBelow(1_000_000_000));
+    }
+}
@@ -0,0 +1,34 @@
+package winter.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+final class MetricsRegistryTest {
+
+    @Test
+    void scrapeEmitsPrometheusText() {
+        var registry = new MetricsRegistry(file -> file.getFileName().toString());
+        registry.route(Path.of("/routes/users.java"), "GET").record(200, 2_000_000);
+        registry.route(Path.of("/routes/users.java"), "BREW").record(405, 1_000);
+        registry.gauge("winter_inflight_requests", "In flight.", Map.of(), () -> 3);
+
+        String text = registry.scrape();
+        assertTrue(
+                text.contains(
+                        "winter_requests_total{route=\"users.java\",method=\"GET\","
+                                + "status=\"2xx\"} 1"),
+                text);
+        assertTrue(text.contains("method=\"OTHER\",status=\"4xx\"} 1"), text);
+        assertTrue(
+                text.contains(
+                        "winter_request_duration_seconds_bucket{route=\"users.java\","
+                                + "method=\"GET\",le=\"0.005\"} 1"),
+                text);
+        assertTrue(text.contains("# TYPE winter_inflight_requests gauge"), text);
+        assertTrue(text.contains("\nwinter_inflight_requests 3\n"), text);
+    }
+}
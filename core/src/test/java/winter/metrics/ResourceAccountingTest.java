@@ -0,0 +1,58 @@
+package winter.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class ResourceAccountingTest {
+
+    @Test
+    void attributesAllocationToRoutesAndRanksThem() {
+        var accounting = new ResourceAccounting(1.0, file -> file.getFileName().toString());
+        Path light = Path.of("/routes/light.java");
+        Path heavy = Path.of("/routes/heavy.java");
+
+        assertTrue(accounting.sample());
+        for (int i = 0; i < 5; i++) {
+            accounting.record(light, 1_000, measureAllocation(1_000));
+            accounting.record(heavy, 1_000, measureAllocation(1_000_000));
+        }
+
+        var top = accounting.top(1, Comparator.comparingLong(RouteCost::allocatedBytesPerRequest));
+        assertEquals("heavy.java", top.getFirst().route());
+        assertTrue(top.getFirst().allocatedBytesPerRequest() >= 1_000_000);
+        assertEquals(5, top.getFirst().samples());
+    }
+
+    @Test
+    void virtualThreadsAreCountedAsUnmeasured() throws Exception {
+        var accounting = new ResourceAccounting(1.0, file -> file.getFileName().toString());
+        Path route = Path.of("/routes/virtual.java");
+        var readings = new AtomicLong();
+
+        Thread.ofVirtual()
+                .start(
+                        () -> {
+                            readings.set(ResourceAccounting.allocatedBytes());
+                            accounting.record(route, ResourceAccounting.cpuTime(), readings.get());
+                        })
+                .join();
+
+        assertEquals(-1, readings.get());
+        var cost = accounting.routes().getFirst();
+        assertEquals(0, cost.samples());
+        assertEquals(1, cost.unmeasured());
+    }
+
+    private static long measureAllocation(int bytes) {
+        long before = ResourceAccounting.allocatedBytes();
+        byte[] garbage = new byte[bytes];
+        long after = ResourceAccounting.allocatedBytes();
+        assertEquals(bytes, garbage.length);
+        return after - before;
+    }
+}
@@ -0,0 +1,39 @@
+package winter.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+final class SlowRequestsTest {
+
+    private static final long[] NO_PHASES = new long[Phase.values().length];
+
+    @Test
+    void keepsOnlyRequestsOverThresholdSlowestFirst() {
+        var slow = new SlowRequests(10, 4);
+
+        assertFalse(slow.offer("GET", "/fast", "fast.java", 200, 9, NO_PHASES));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(slow.offer("GET", "/slow", "slow.java", 200, 10 + i, NO_PHASES));
+        }
+
+        var entries = slow.snapshot();
+        assertEquals(4, entries.size());
+        assertEquals(19, entries.getFirst().nanos());
+        assertEquals(16, entries.getLast().nanos());
+    }
+
+    @Test
+    void entryReportsPhasesInMilliseconds() {
+        var slow = new SlowRequests(0, 1);
+        long[] phases = new long[Phase.values().length];
+        phases[Phase.HANDLER.ordinal()] = 2_500_000;
+        slow.offer("POST", "/users", "users.java", 201, 3_000_000, phases);
+
+        var map = slow.snapshot().getFirst().toMap();
+        assertEquals(3.0, map.get("durationMs"));
+        assertEquals(2.5, ((Map<?, ?>) map.get("phasesMs")).get("handler"));
+    }
+}
@@ -0,0 +1,116 @@
+package winter.middleware;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import winter.Ctx;
+import winter.Res;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+
+final class MiddlewareChainTest {
+
+    @Test
+    void emptyChainRunsTerminalAndFallback() {
+        var chain = MiddlewareChain.of(List.of());
+
+        assertEquals("ok", chain.execute(null, () -> "ok", (ctx, exception) -> "fallback"));
+        assertEquals(
+                "fallback",
+                chain.execute(
+                        null,
+                        () -> {
+                            throw new IllegalStateException("boom");
+                        },
+                        (ctx, exception) -> "fallback"));
+    }
+
+    @Test
+    void shortCircuitOnlyUnwindsEnteredMiddleware() {
+        var calls = new ArrayList<String>();
+        var chain =
+                MiddlewareChain.of(
+                        List.of(
+                                recording("a", calls, null),
+                                recording("b", calls, "early"),
+                                recording("c", calls, null)));
+
+        Object result = chain.execute(null, () -> "handler", (ctx, exception) -> null);
+
+        assertEquals("early", result);
+        assertEquals(List.of("before:a", "before:b", "after:b", "after:a"), calls);
+    }
+
+    @Test
+    void onErrorRunsInnermostFirstThenAfterHooks() {
+        var calls = new ArrayList<String>();
+        Middleware handlesErrors =
+                new Middleware() {
+                    @Override
+                    public Object onError(Ctx ctx, Exception exception) {
+                        calls.add("onError:outer");
+                        return "handled";
+                    }
+                };
+        var chain = MiddlewareChain.of(List.of(handlesErrors, recording("inner", calls, null)));
+
+        Object result =
+                chain.execute(
+                        null,
+                        () -> {
+                            throw new IllegalStateException("boom");
+                        },
+                        (ctx, exception) -> "fallback");
+
+        assertEquals("handled", result);
+        assertEquals(List.of("before:inner", "onError:outer", "after:inner"), calls);
+    }
+
+    @Test
+    void shortCircuitIsRecordedAsFlightRecorderEvent(@TempDir Path tempDir) throws Exception {
+        var chain =
+                MiddlewareChain.of(
+                        List.of(recording("auth", new ArrayList<>(), Res.of(401, null))));
+
+        String name = "winter.MiddlewareShortCircuit";
+        Path dump = tempDir.resolve("events.jfr");
+        try (var recording = new Recording()) {
+            recording.enable(name);
+            recording.start();
+            chain.execute(null, () -> "handler", (ctx, exception) -> null);
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        var events =
+                RecordingFile.readAllEvents(dump).stream()
+                        .filter(event -> event.getEventType().getName().equals(name))
+                        .toList();
+        assertEquals(1, events.size());
+        assertEquals(401, events.getFirst().getInt("status"));
+    }
+
+    private static Middleware recording(String name, List<String> calls, Object early) {
+        return new Middleware() {
+            @Override
+            public Object before(Ctx ctx) {
+                calls.add("before:" + name);
+                return early;
+            }
+
+            @Override
+            public Object after(Ctx ctx, Object result) {
+                calls.add("after:" + name);
+                return result;
+            }
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package winter.multipart;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import winter.HttpError;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+final class MultipartTest {
+
+    private static final String CONTENT_TYPE = "multipart/form-data; boundary=xyz";
+
+    @Test
+    void smallFieldsStayInMemoryAndLargePartsSpill(@TempDir Path tempDir) throws Exception {
+        String upload = "a".repeat(50_000);
+        String body =
+                "preamble\r\n"
+                        + "--xyz\r\n"
+                        + "Content-Disposition: form-data; name=\"title\"\r\n"
+                        + "\r\n"
+                        + "hello\r\n"
+                        + "--xyz\r\n"
+                        + "Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n"
+                        + "Content-Type: text/plain\r\n"
+                        + "\r\n"
+                        + upload
+                        + "\r\n"
+                        + "--xyz--\r\n";
+
+        var config = MultipartConfig.defaults().withMemoryThresholdBytes(10).withTempDir(tempDir);
+        var multipart = read(body, config);
+
+        Part title = multipart.next();
+        assertEquals("title", title.name());
+        assertNull(title.filename());
+        assertTrue(title.isInMemory());
+        assertEquals("hello", title.text());
+
+        Part file = multipart.next();
+        assertEquals("a.txt", file.filename());
+        assertEquals("text/plain", file.contentType());
+        assertFalse(file.isInMemory());
+        assertEquals(50_000, file.size());
+        assertEquals(upload, Files.readString(file.file()));
+
+        assertFalse(multipart.hasNext());
+        multipart.close();
+        assertFalse(Files.exists(file.file()));
+    }
+
+    @Test
+    void partOverLimitIsRejected(@TempDir Path tempDir) {
+        String body =
+                "--xyz\r\n"
+                        + "Content-Disposition: form-data; name=\"file\"; filename=\"a.bin\"\r\n"
+                        + "\r\n"
+                        + "0123456789\r\n"
+                        + "--xyz--\r\n";
+
+        var config = MultipartConfig.defaults().withMaxPartBytes(5).withTempDir(tempDir);
+        var multipart = read(body, config);
+        var error = assertThrows(HttpError.class, multipart::next);
+        assertEquals(413, error.status());
+    }
+
+    @Test
+    void smallPartsSpillOnceTheRequestMemoryCapIsReached(@TempDir Path tempDir) throws Exception {
+        var config = MultipartConfig.defaults().withMaxMemoryBytes(8).withTempDir(tempDir);
+        var multipart = read(fields(3, "abcd"), config);
+
+        assertTrue(multipart.next().isInMemory());
+        assertTrue(multipart.next().isInMemory());
+        Part third = multipart.next();
+        assertFalse(third.isInMemory());
+        assertEquals("abcd", third.text());
+        multipart.close();
+    }
+
+    @Test
+    void tooManyPartsAreRejected(@TempDir Path tempDir) {
+        var config = MultipartConfig.defaults().withMaxParts(2).withTempDir(tempDir);
+        var multipart = read(fields(3, "x"), config);
+
+        multipart.next();
+        multipart.next();
+        var error = assertThrows(HttpError.class, multipart::next);
+        assertEquals(413, error.status());
+    }
+
+    @Test
+    void missingClosingBoundaryIsMalformed(@TempDir Path tempDir) {
+        String body = "--xyz\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\nvalue";
+
+        var multipart = read(body, MultipartConfig.defaults().withTempDir(tempDir));
+        var error = assertThrows(HttpError.class, multipart::next);
+        assertEquals(400, error.status());
+    }
+
+    private static String fields(int count, String value) {
+        var body = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            body.append("--xyz\r\nContent-Disposition: form-data; name=\"f")
+                    .append(i)
+                    .append("\"\r\n\r\n")
+                    .append(value)
+                    .append("\r\n");
+        }
+        return body.append("--xyz--\r\n").toString();
+    }
+
+    private static Multipart read(String body, MultipartConfig config) {
+        return Multipart.read(new ByteArrayInputStream(body.getBytes(UTF_8)), CONTENT_TYPE, config);
+    }
+}
@@ -0,0 +1,76 @@
+package winter.profile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import winter.jfr.RouteExecutionEvent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+final class ProfilerTest {
+
+    private static volatile long sink;
+
+    @Test
+    void keepsOnlySamplesTakenInsideTheRequestedRoute() throws Exception {
+        var stop = new AtomicBoolean();
+        var inside =
+                Thread.ofPlatform()
+                        .start(
+                                () -> {
+                                    while (!stop.get()) {
+                                        var event = new RouteExecutionEvent();
+                                        event.begin();
+                                        busyInsideRoute();
+                                        event.end();
+                                        event.route = "hot.java";
+                                        event.commit();
+                                    }
+                                });
+        var outside =
+                Thread.ofPlatform()
+                        .start(
+                                () -> {
+                                    while (!stop.get()) busyOutsideRoute();
+                                });
+
+        try {
+            String stacks = new Profiler().collapsedStacks(Duration.ofSeconds(2), "hot.java");
+            assertTrue(stacks.contains("busyInsideRoute"), stacks);
+            assertFalse(stacks.contains("busyOutsideRoute"), stacks);
+            for (String line : stacks.split("\n")) {
+                assertTrue(line.matches("\\S+ \\d+"), line);
+            }
+        } finally {
+            stop.set(true);
+            inside.join();
+            outside.join();
+        }
+    }
+
+    @Test
+    void rejectsOutOfRangeDurations() {
+        var profiler = new Profiler();
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> profiler.collapsedStacks(Duration.ZERO, null));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> profiler.collapsedStacks(Duration.ofMinutes(5), null));
+    }
+
+    // Tight arithmetic loops can sit where JFR cannot walk the stack, so both do real calls.
+    private static void busyInsideRoute() {
+        long x = 0;
+        for (int i = 0; i < 100_000; i++) x += Long.toString(x + i).hashCode();
+        sink = x;
+    }
+
+    private static void busyOutsideRoute() {
+        long x = 0;
+        for (int i = 0; i < 100_000; i++) x += Long.toHexString(x + i).hashCode();
+        sink = x;
+    }
+}
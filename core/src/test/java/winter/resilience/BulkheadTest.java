@@ -0,0 +1,53 @@
+package winter.resilience;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+final class BulkheadTest {
+
+    @Test
+    void admitsUpToConcurrencyPlusQueueThenRejects() throws Exception {
+        try (var bulkhead = new Bulkhead(BulkheadConfig.of("reports", 1, 2))) {
+            var started = new CountDownLatch(1);
+            var gate = new CountDownLatch(1);
+
+            for (int i = 0; i < 3; i++) {
+                assertTrue(bulkhead.tryAcquire());
+                bulkhead.executor()
+                        .execute(
+                                () -> {
+                                    started.countDown();
+                                    try {
+                                        gate.await();
+                                    } catch (InterruptedException ignored) {
+                                        Thread.currentThread().interrupt();
+                                    } finally {
+                                        bulkhead.release();
+                                    }
+                                });
+            }
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+
+            assertFalse(bulkhead.tryAcquire());
+            assertEquals(1, bulkhead.rejected());
+            assertEquals(1, bulkhead.active());
+            assertEquals(2, bulkhead.queued());
+
+            gate.countDown();
+        }
+    }
+
+    @Test
+    void prefixesMatchWholeSegments() {
+        var config = BulkheadConfig.of("reports", 4, 16).withPathPrefixes(List.of("/reports"));
+
+        assertTrue(config.matches("/reports"));
+        assertTrue(config.matches("/reports/daily"));
+        assertFalse(config.matches("/reportsx"));
+    }
+}
@@ -0,0 +1,75 @@
+package winter.resilience;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import winter.resilience.CircuitBreaker.State;
+
+import java.util.concurrent.TimeUnit;
+
+final class CircuitBreakerTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Breaker(minCalls = 4, openMillis = 100, halfOpenProbes = 1, slowCallMillis = 50)
+    private static final class Guarded {}
+
+    private static CircuitBreaker breaker() {
+        return new CircuitBreaker(Guarded.class.getAnnotation(Breaker.class));
+    }
+
+    @Test
+    void opensOnFailureRateAndRecoversThroughHalfOpenProbe() {
+        var breaker = breaker();
+        long now = 1_000 * MILLIS;
+
+        breaker.record(false, MILLIS, now);
+        breaker.record(true, MILLIS, now);
+        breaker.record(false, MILLIS, now);
+        assertEquals(State.CLOSED, breaker.state());
+        breaker.record(true, MILLIS, now);
+        assertEquals(State.OPEN, breaker.state());
+
+        assertFalse(breaker.tryAcquire(now + 50 * MILLIS));
+        assertTrue(breaker.tryAcquire(now + 100 * MILLIS));
+        assertEquals(State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire(now + 100 * MILLIS));
+
+        breaker.record(false, MILLIS, now + 110 * MILLIS);
+        assertEquals(State.CLOSED, breaker.state());
+        assertEquals(1, breaker.opened());
+        assertEquals(2, breaker.rejected());
+    }
+
+    @Test
+    void slowCallsOpenAndFailedProbeReopens() {
+        var breaker = breaker();
+        long now = 5_000 * MILLIS;
+
+        for (int i = 0; i < 4; i++) breaker.record(false, 60 * MILLIS, now);
+        assertEquals(State.OPEN, breaker.state());
+
+        assertTrue(breaker.tryAcquire(now + 200 * MILLIS));
+        breaker.record(true, MILLIS, now + 200 * MILLIS);
+        assertEquals(State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire(now + 250 * MILLIS));
+        assertEquals(503, breaker.rejection().status());
+    }
+
+    @Test
+    void oldFailuresSlideOutOfTheWindow() {
+        var breaker = breaker();
+        long now = 0;
+
+        breaker.record(true, MILLIS, now);
+        breaker.record(true, MILLIS, now);
+        now += TimeUnit.SECONDS.toNanos(11);
+        breaker.record(true, MILLIS, now);
+        breaker.record(false, MILLIS, now);
+        breaker.record(false, MILLIS, now);
+        breaker.record(false, MILLIS, now);
+
+        assertEquals(State.CLOSED, breaker.state());
+    }
+}
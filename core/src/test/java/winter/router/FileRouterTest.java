@@ -217,4 +217,14 @@ final class FileRouterTest {
         var router = new FileRouter(routes);
         assertNull(router.match("/anything"));
     }
+
+    @Test
+    void middlewareFileIsNotRoutable(@TempDir Path tempDir) throws Exception {
+        Path routes = tempDir.resolve("routes");
+        Files.createDirectories(routes);
+        Files.writeString(routes.resolve("_middleware.java"), "");
+
+        var router = new FileRouter(routes);
+        assertNull(router.match("/_middleware"));
+    }
 }
@@ -1,4 +1,5 @@
 import winter.Ctx;
+import winter.Res;
 
 import java.util.List;
 import java.util.Map;
@@ -8,4 +9,13 @@ public class Route {
     public Object get(Ctx ctx) {
         return List.of(Map.of("id", "1", "name", "Ada"), Map.of("id", "2", "name", "Linus"));
     }
+
+    public Object post(Ctx ctx) {
+        Map<?, ?> user = ctx.body(Map.class);
+        Object name = user.get("name");
+        if (!(name instanceof String)) {
+            return Res.of(400, Map.of("error", "Bad Request", "message", "name is required"));
+        }
+        return Res.of(201, Map.of("id", "3", "name", name));
+    }
 }
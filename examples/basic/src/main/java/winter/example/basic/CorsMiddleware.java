@@ -13,7 +13,7 @@ public final class CorsMiddleware implements Middleware {
     public Object before(Ctx ctx) {
         if (!"OPTIONS".equalsIgnoreCase(ctx.method())) return null;
 
-        return baseCors(Res.of(204, null), ctx)
+        return Res.of(204, null)
                 .header("Access-Control-Allow-Methods", ALLOW_METHODS)
                 .header("Access-Control-Allow-Headers", allowHeaders(ctx))
                 .header("Access-Control-Max-Age", "86400");
@@ -21,18 +21,11 @@ public final class CorsMiddleware implements Middleware {
 
     @Override
     public Object after(Ctx ctx, Object result) {
-        Res base;
-        if (result instanceof Res res) base = res;
-        else if (result == null) base = Res.of(204, null);
-        else base = Res.of(200, result);
-
-        return baseCors(base, ctx);
-    }
-
-    private static Res baseCors(Res res, Ctx ctx) {
         // Minimal/default policy for development: allow all origins.
         // If you want stricter behavior, make this check `Origin` and return 403.
-        return res.header("Access-Control-Allow-Origin", "*").header("Vary", "Origin");
+        // Headers go on the per-request accumulator, so the result is never re-wrapped.
+        ctx.responseHeader("Access-Control-Allow-Origin", "*").responseHeader("Vary", "Origin");
+        return result;
     }
 
     private static String allowHeaders(Ctx ctx) {
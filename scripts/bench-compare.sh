@@ -0,0 +1,53 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+usage() {
+  cat <<'EOF2'
+Usage:
+  ./scripts/bench-compare.sh <baseline.json> <current.json>
+
+Compares two JMH result files (from `./gradlew :benchmarks:jmh`, written to
+`benchmarks/build/results/jmh/results.json`). Prints the score of each benchmark in both
+runs, the change, and bytes allocated per operation. Requires `jq`.
+
+Typical use:
+  git checkout main && ./gradlew :benchmarks:jmh
+  cp benchmarks/build/results/jmh/results.json /tmp/base.json
+  git checkout - && ./gradlew :benchmarks:jmh
+  ./scripts/bench-compare.sh /tmp/base.json benchmarks/build/results/jmh/results.json
+EOF2
+}
+
+if [[ $# -ne 2 ]]; then
+  usage
+  exit 1
+fi
+
+if ! command -v jq >/dev/null 2>&1; then
+  echo "bench-compare.sh requires jq" >&2
+  exit 1
+fi
+
+flatten() {
+  jq -r '.[] | [
+      (.benchmark | split(".") | .[-2:] | join("."))
+        + ((.params // {}) | to_entries | map(":" + .key + "=" + .value) | join("")),
+      .primaryMetric.score,
+      .primaryMetric.scoreUnit,
+      (.secondaryMetrics["gc.alloc.rate.norm"].score // "")
+    ] | @tsv' "$1" | sort
+}
+
+join -t $'\t' -a 2 -e '-' -o '1.2,1.4,2.1,2.2,2.3,2.4' \
+  <(flatten "$1") <(flatten "$2") 2>/dev/null \
+  | awk -F'\t' '
+      BEGIN {
+        printf "%-56s %14s %14s %8s %12s %12s  %s\n",
+          "benchmark", "baseline", "current", "change", "B/op base", "B/op now", "unit"
+      }
+      {
+        change = ($1 == "-" || $1 == 0) ? "new" : sprintf("%+.1f%%", ($4 - $1) / $1 * 100)
+        printf "%-56s %14s %14.3f %8s %12s %12s  %s\n",
+          $3, ($1 == "-" ? "-" : sprintf("%.3f", $1)), $4, change,
+          ($2 == "" || $2 == "-" ? "-" : sprintf("%.0f", $2)), ($6 == "" || $6 == "-" ? "-" : sprintf("%.0f", $6)), $5
+      }'
@@ -35,6 +35,9 @@ curl -fsS "http://127.0.0.1:8080/users/123" >/dev/null
 curl -fsS "http://127.0.0.1:8080/users/123/posts" >/dev/null
 match "\"category\":\"books\"" "$(curl -fsS "http://127.0.0.1:8080/books/123")" || { echo "nested dynamic root route failed" >&2; exit 1; }
 
+json="$(curl -fsS -X POST -H "Content-Type: application/json" -d '{"name":"Grace"}' "http://127.0.0.1:8080/users")"
+match "\"name\":\"Grace\"" "$json" || { echo "POST /users did not echo the new user" >&2; exit 1; }
+
 headers="$(curl -sS -I "http://127.0.0.1:8080/" | tr -d '\r')"
 match "^HTTP/1\\.1 200" "$headers" || { echo "Expected 200 for HEAD /" >&2; exit 1; }
 
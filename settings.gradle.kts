@@ -6,5 +6,6 @@ rootProject.name = "winter"
 
 include(":core")
 include(":examples:basic")
+include(":benchmarks")
 
 project(":examples:basic").projectDir = file("examples/basic")